@@ -0,0 +1,95 @@
+package creational.singleton;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Time for the very first getInstance(), with all threads racing on it. Before
+// every iteration a fresh copy of the singleton class is loaded in its own class
+// loader, so each single shot really finds the instance missing.
+//
+// ThreadSafeSingleton and DoubleCheckedLockingSingleton sleep 100 ms while
+// constructing, so their rows are dominated by that simulated work; compare them
+// with each other, and the lock-free variants with each other.
+//
+//   java -jar target/benchmarks.jar SingletonFirstCallBenchmark
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(1)
+@State(Scope.Benchmark)
+public abstract class SingletonFirstCallBenchmark {
+    @Param({"SYNCHRONIZED", "DOUBLE_CHECKED", "ENUM", "HOLDER", "VAR_HANDLE"})
+    public String variant;
+
+    private MethodHandle accessor;
+
+    @Setup(Level.Iteration)
+    public void loadFreshCopy() throws ReflectiveOperationException {
+        Class<?> type;
+        switch (variant) {
+            case "SYNCHRONIZED":
+                type = ThreadSafeSingleton.class;
+                break;
+            case "DOUBLE_CHECKED":
+                type = DoubleCheckedLockingSingleton.class;
+                break;
+            case "ENUM":
+                type = EnumSingleton.class;
+                break;
+            case "HOLDER":
+                type = HolderSingleton.class;
+                break;
+            case "VAR_HANDLE":
+                type = VarHandleSingleton.class;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown variant: " + variant);
+        }
+        URL classes = type.getProtectionDomain().getCodeSource().getLocation();
+        ClassLoader isolated = new URLClassLoader(new URL[]{classes}, ClassLoader.getPlatformClassLoader());
+        Class<?> copy = Class.forName(type.getName(), false, isolated);
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        accessor = type.isEnum()
+                ? lookup.findStaticGetter(copy, "INSTANCE", copy)
+                : lookup.findStatic(copy, "getInstance", MethodType.methodType(copy));
+    }
+
+    @Benchmark
+    public Object firstCall() throws Throwable {
+        return accessor.invoke();
+    }
+
+    @Threads(1)
+    public static class OneThread extends SingletonFirstCallBenchmark {
+    }
+
+    @Threads(2)
+    public static class TwoThreads extends SingletonFirstCallBenchmark {
+    }
+
+    @Threads(4)
+    public static class FourThreads extends SingletonFirstCallBenchmark {
+    }
+
+    @Threads(Threads.MAX)
+    public static class AllCores extends SingletonFirstCallBenchmark {
+    }
+}
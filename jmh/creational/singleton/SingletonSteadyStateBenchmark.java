@@ -0,0 +1,65 @@
+package creational.singleton;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// getInstance() throughput once the instance exists. JMH consumes every returned
+// instance, so the JIT cannot fold the calls into a constant the way it does in
+// a hand-written loop. Each nested class runs the same benchmarks at a different
+// thread count:
+//
+//   java -jar target/benchmarks.jar SingletonSteadyStateBenchmark
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class SingletonSteadyStateBenchmark {
+    @Benchmark
+    public ThreadSafeSingleton synchronizedMethod() {
+        return ThreadSafeSingleton.getInstance();
+    }
+
+    @Benchmark
+    public DoubleCheckedLockingSingleton doubleChecked() {
+        return DoubleCheckedLockingSingleton.getInstance();
+    }
+
+    @Benchmark
+    public EnumSingleton enumConstant() {
+        return EnumSingleton.INSTANCE;
+    }
+
+    @Benchmark
+    public HolderSingleton holder() {
+        return HolderSingleton.getInstance();
+    }
+
+    @Benchmark
+    public VarHandleSingleton varHandle() {
+        return VarHandleSingleton.getInstance();
+    }
+
+    @Threads(1)
+    public static class OneThread extends SingletonSteadyStateBenchmark {
+    }
+
+    @Threads(2)
+    public static class TwoThreads extends SingletonSteadyStateBenchmark {
+    }
+
+    @Threads(4)
+    public static class FourThreads extends SingletonSteadyStateBenchmark {
+    }
+
+    @Threads(Threads.MAX)
+    public static class AllCores extends SingletonSteadyStateBenchmark {
+    }
+}
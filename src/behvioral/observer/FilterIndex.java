@@ -0,0 +1,436 @@
+package behvioral.observer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Index over the filters of all filtered observers, so a reading only touches
+// the observers it matches:
+//
+// - a change clause is measured against the value last delivered to its
+//   observer, so it is kept as the band (last - minDelta, last + minDelta) it
+//   does not fire in. The bands of a field sit in a max-heap of lower bounds
+//   and a min-heap of upper bounds; the clauses that fire are popped off the
+//   tops, in O(log n) per match. Only the observers just notified are re-keyed:
+//   they push new entries and their old ones are dropped lazily.
+// - range clauses of a field live in a centered interval tree, which finds the
+//   ranges containing a value in O(log n + matches). It is rebuilt lazily after
+//   observers are added or removed.
+class FilterIndex {
+    private static final class Subscription {
+        final Observer observer;
+        final ObserverFilter filter;
+        final float[] lastDelivered = new float[Measurement.values().length];
+        final List<ChangeClause> changes = new ArrayList<>();
+        int lastReading = -1; // dedupes observers with several matching clauses
+
+        Subscription(Observer observer, ObserverFilter filter) {
+            this.observer = observer;
+            this.filter = filter;
+            Arrays.fill(lastDelivered, Float.NaN);
+        }
+    }
+
+    private static final class ChangeClause {
+        final Subscription subscription;
+        final int field;
+        final float minDelta;
+        int version; // bumped on every re-key; heap entries with an older one are stale
+        float low;
+        float high;
+
+        ChangeClause(Subscription subscription, int field, float minDelta) {
+            this.subscription = subscription;
+            this.field = field;
+            this.minDelta = minDelta;
+        }
+
+        // Fires for values <= low or >= high; before the first delivery it fires for any value
+        void key() {
+            float last = subscription.lastDelivered[field];
+            if (Float.isNaN(last)) {
+                low = Float.POSITIVE_INFINITY;
+                high = Float.NEGATIVE_INFINITY;
+                return;
+            }
+            // last +- minDelta can round either way; step to the exact thresholds of
+            // |value - last| >= minDelta, which a small minDelta may leave one ulp away
+            high = last + minDelta;
+            while (high - last < minDelta) {
+                high = Math.nextUp(high);
+            }
+            while (Math.nextDown(high) - last >= minDelta) {
+                high = Math.nextDown(high);
+            }
+            low = last - minDelta;
+            while (last - low < minDelta) {
+                low = Math.nextDown(low);
+            }
+            while (last - Math.nextUp(low) >= minDelta) {
+                low = Math.nextUp(low);
+            }
+        }
+    }
+
+    private final Map<Observer, Subscription> subscriptions = new LinkedHashMap<>();
+    private final ChangeIndex[] changes = new ChangeIndex[Measurement.values().length];
+    private final IntervalTree[] ranges = new IntervalTree[Measurement.values().length];
+    private final List<Subscription> matched = new ArrayList<>();
+    private boolean stale = true;
+    private int reading;
+
+    FilterIndex() {
+        for (int i = 0; i < changes.length; i++) {
+            changes[i] = new ChangeIndex();
+        }
+    }
+
+    void add(Observer observer, ObserverFilter filter) {
+        Subscription subscription = new Subscription(observer, filter);
+        for (ObserverFilter.Clause clause : filter.clauses()) {
+            if (!clause.range) {
+                subscription.changes.add(new ChangeClause(subscription, clause.field.ordinal(), clause.minDelta));
+            }
+        }
+        Subscription replaced = subscriptions.put(observer, subscription);
+        if (replaced != null) {
+            unindex(replaced);
+        }
+        index(subscription);
+        stale = true;
+    }
+
+    boolean remove(Observer observer) {
+        Subscription removed = subscriptions.remove(observer);
+        if (removed == null) {
+            return false;
+        }
+        unindex(removed);
+        stale = true;
+        return true;
+    }
+
+    boolean isEmpty() {
+        return subscriptions.isEmpty();
+    }
+
+    void notifyMatching(float temperature, float humidity, float pressure) {
+        if (stale) {
+            rebuild();
+        }
+        reading++;
+        matched.clear();
+        for (Measurement field : Measurement.values()) {
+            float value = field.of(temperature, humidity, pressure);
+            changes[field.ordinal()].collect(value, this);
+            ranges[field.ordinal()].collect(value, this);
+        }
+        // Re-key every match before notifying anyone: their popped heap entries are
+        // gone, so an observer that throws must not leave the rest unindexed
+        for (Subscription subscription : matched) {
+            unindex(subscription);
+            for (Measurement field : Measurement.values()) {
+                subscription.lastDelivered[field.ordinal()] = field.of(temperature, humidity, pressure);
+            }
+            index(subscription);
+        }
+        // Notify in one pass after matching, so observers see a consistent order
+        for (Subscription subscription : matched) {
+            subscription.observer.update(temperature, humidity, pressure);
+        }
+    }
+
+    private void match(Subscription subscription) {
+        if (subscription.lastReading != reading) {
+            subscription.lastReading = reading;
+            matched.add(subscription);
+        }
+    }
+
+    private void index(Subscription subscription) {
+        for (ChangeClause clause : subscription.changes) {
+            changes[clause.field].add(clause);
+        }
+    }
+
+    private void unindex(Subscription subscription) {
+        for (ChangeClause clause : subscription.changes) {
+            changes[clause.field].remove(clause);
+        }
+    }
+
+    private void rebuild() {
+        int fields = Measurement.values().length;
+        List<List<float[]>> rangeKeys = new ArrayList<>();
+        List<List<Subscription>> rangeSubs = new ArrayList<>();
+        for (int i = 0; i < fields; i++) {
+            rangeKeys.add(new ArrayList<>());
+            rangeSubs.add(new ArrayList<>());
+        }
+        for (Subscription subscription : subscriptions.values()) {
+            for (ObserverFilter.Clause clause : subscription.filter.clauses()) {
+                if (clause.range) {
+                    int field = clause.field.ordinal();
+                    rangeKeys.get(field).add(new float[]{clause.min, clause.max});
+                    rangeSubs.get(field).add(subscription);
+                }
+            }
+        }
+        for (int i = 0; i < fields; i++) {
+            ranges[i] = IntervalTree.build(rangeKeys.get(i), rangeSubs.get(i));
+        }
+        stale = false;
+    }
+
+    private static final class ChangeIndex {
+        private final BoundHeap lows = new BoundHeap(true);
+        private final BoundHeap highs = new BoundHeap(false);
+        private int live;
+
+        void add(ChangeClause clause) {
+            clause.key();
+            clause.version++;
+            lows.push(clause.low, clause);
+            highs.push(clause.high, clause);
+            live++;
+            // Stale entries that never reach the top are dropped in bulk, in amortized O(1)
+            if (lows.size > 2 * live + 64) {
+                lows.compact();
+            }
+            if (highs.size > 2 * live + 64) {
+                highs.compact();
+            }
+        }
+
+        void remove(ChangeClause clause) {
+            clause.version++;
+            live--;
+        }
+
+        // Matched clauses leave the heaps; the caller re-keys their subscriptions
+        void collect(float value, FilterIndex index) {
+            if (Float.isNaN(value)) {
+                return;
+            }
+            // Dropped to at least minDelta below the last delivered value: largest lows first
+            while (lows.size > 0 && lows.keys[0] >= value) {
+                ChangeClause clause = lows.pop();
+                if (clause != null) {
+                    index.match(clause.subscription);
+                }
+            }
+            // Risen to at least minDelta above it: smallest highs first
+            while (highs.size > 0 && highs.keys[0] <= value) {
+                ChangeClause clause = highs.pop();
+                if (clause != null) {
+                    index.match(clause.subscription);
+                }
+            }
+        }
+    }
+
+    // Binary heap of (bound, clause, version) in parallel arrays, largest bound on
+    // top when max is set and smallest otherwise
+    private static final class BoundHeap {
+        private final boolean max;
+        float[] keys = new float[16];
+        private ChangeClause[] clauses = new ChangeClause[16];
+        private int[] versions = new int[16];
+        int size;
+
+        BoundHeap(boolean max) {
+            this.max = max;
+        }
+
+        void push(float key, ChangeClause clause) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                clauses = Arrays.copyOf(clauses, size * 2);
+                versions = Arrays.copyOf(versions, size * 2);
+            }
+            set(size, key, clause, clause.version);
+            siftUp(size++);
+        }
+
+        // Removes the top entry; returns its clause, or null if the entry was stale
+        ChangeClause pop() {
+            ChangeClause clause = clauses[0];
+            boolean current = versions[0] == clause.version;
+            size--;
+            set(0, keys[size], clauses[size], versions[size]);
+            clauses[size] = null;
+            if (size > 0) {
+                siftDown(0);
+            }
+            return current ? clause : null;
+        }
+
+        void compact() {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (versions[i] == clauses[i].version) {
+                    set(kept++, keys[i], clauses[i], versions[i]);
+                }
+            }
+            Arrays.fill(clauses, kept, size, null);
+            size = kept;
+            for (int i = size / 2 - 1; i >= 0; i--) {
+                siftDown(i);
+            }
+        }
+
+        private boolean above(float a, float b) {
+            return max ? a > b : a < b;
+        }
+
+        private void siftUp(int i) {
+            float key = keys[i];
+            ChangeClause clause = clauses[i];
+            int version = versions[i];
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!above(key, keys[parent])) {
+                    break;
+                }
+                set(i, keys[parent], clauses[parent], versions[parent]);
+                i = parent;
+            }
+            set(i, key, clause, version);
+        }
+
+        private void siftDown(int i) {
+            float key = keys[i];
+            ChangeClause clause = clauses[i];
+            int version = versions[i];
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && above(keys[child + 1], keys[child])) {
+                    child++;
+                }
+                if (!above(keys[child], key)) {
+                    break;
+                }
+                set(i, keys[child], clauses[child], versions[child]);
+                i = child;
+            }
+            set(i, key, clause, version);
+        }
+
+        private void set(int i, float key, ChangeClause clause, int version) {
+            keys[i] = key;
+            clauses[i] = clause;
+            versions[i] = version;
+        }
+    }
+
+    // Each node holds the ranges that contain its center, sorted by min and by
+    // max; ranges entirely below or above the center go to the child nodes
+    private static final class IntervalTree {
+        private static final IntervalTree EMPTY = new IntervalTree(0, new float[0], new Subscription[0],
+                new float[0], new Subscription[0], null, null);
+
+        private final float center;
+        private final float[] minsAscending;
+        private final Subscription[] byMin;
+        private final float[] maxsDescending;
+        private final Subscription[] byMax;
+        private final IntervalTree below;
+        private final IntervalTree above;
+
+        private IntervalTree(float center, float[] minsAscending, Subscription[] byMin,
+                             float[] maxsDescending, Subscription[] byMax, IntervalTree below, IntervalTree above) {
+            this.center = center;
+            this.minsAscending = minsAscending;
+            this.byMin = byMin;
+            this.maxsDescending = maxsDescending;
+            this.byMax = byMax;
+            this.below = below;
+            this.above = above;
+        }
+
+        static IntervalTree build(List<float[]> ranges, List<Subscription> subs) {
+            if (ranges.isEmpty()) {
+                return EMPTY;
+            }
+            float[] endpoints = new float[ranges.size() * 2];
+            for (int i = 0; i < ranges.size(); i++) {
+                endpoints[2 * i] = ranges.get(i)[0];
+                endpoints[2 * i + 1] = ranges.get(i)[1];
+            }
+            Arrays.sort(endpoints);
+            float center = endpoints[endpoints.length / 2];
+
+            List<float[]> here = new ArrayList<>();
+            List<Subscription> hereSubs = new ArrayList<>();
+            List<float[]> low = new ArrayList<>();
+            List<Subscription> lowSubs = new ArrayList<>();
+            List<float[]> high = new ArrayList<>();
+            List<Subscription> highSubs = new ArrayList<>();
+            for (int i = 0; i < ranges.size(); i++) {
+                float[] range = ranges.get(i);
+                if (range[1] < center) {
+                    low.add(range);
+                    lowSubs.add(subs.get(i));
+                } else if (range[0] > center) {
+                    high.add(range);
+                    highSubs.add(subs.get(i));
+                } else {
+                    here.add(range);
+                    hereSubs.add(subs.get(i));
+                }
+            }
+
+            int n = here.size();
+            Integer[] order = new Integer[n];
+            for (int i = 0; i < n; i++) {
+                order[i] = i;
+            }
+            float[] mins = new float[n];
+            Subscription[] byMin = new Subscription[n];
+            Arrays.sort(order, Comparator.comparingDouble(i -> here.get(i)[0]));
+            for (int i = 0; i < n; i++) {
+                mins[i] = here.get(order[i])[0];
+                byMin[i] = hereSubs.get(order[i]);
+            }
+            float[] maxs = new float[n];
+            Subscription[] byMax = new Subscription[n];
+            Arrays.sort(order, Comparator.comparingDouble(i -> -here.get(i)[1]));
+            for (int i = 0; i < n; i++) {
+                maxs[i] = here.get(order[i])[1];
+                byMax[i] = hereSubs.get(order[i]);
+            }
+            return new IntervalTree(center, mins, byMin, maxs, byMax, build(low, lowSubs), build(high, highSubs));
+        }
+
+        void collect(float value, FilterIndex index) {
+            if (Float.isNaN(value)) {
+                return;
+            }
+            IntervalTree node = this;
+            while (node != EMPTY) {
+                if (value < node.center) {
+                    for (int i = 0; i < node.minsAscending.length && node.minsAscending[i] <= value; i++) {
+                        index.match(node.byMin[i]);
+                    }
+                    node = node.below;
+                } else if (value > node.center) {
+                    for (int i = 0; i < node.maxsDescending.length && node.maxsDescending[i] >= value; i++) {
+                        index.match(node.byMax[i]);
+                    }
+                    node = node.above;
+                } else {
+                    for (Subscription subscription : node.byMin) {
+                        index.match(subscription);
+                    }
+                    return;
+                }
+            }
+        }
+    }
+}
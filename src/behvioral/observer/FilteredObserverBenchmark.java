@@ -0,0 +1,93 @@
+package behvioral.observer;
+
+import java.util.Random;
+
+// Compares filtered subscriptions, where WeatherData skips observers whose filter
+// does not match, with plain subscriptions where every observer is called and
+// checks the same condition itself.
+public class FilteredObserverBenchmark {
+    private static final int[] OBSERVER_COUNTS = {1_000, 10_000, 100_000};
+
+    // Counts notifications; stands in for a real display
+    static class CountingObserver implements Observer {
+        long updates;
+
+        @Override
+        public void update(float temperature, float humidity, float pressure) {
+            updates++;
+        }
+    }
+
+    // Plain observer that applies the filter itself, the way observers have to today
+    static class SelfFilteringObserver extends CountingObserver {
+        private final float minTemperature;
+        private final float maxTemperature;
+        private final float minPressureDelta;
+        private float lastPressure = Float.NaN;
+
+        SelfFilteringObserver(float minTemperature, float maxTemperature, float minPressureDelta) {
+            this.minTemperature = minTemperature;
+            this.maxTemperature = maxTemperature;
+            this.minPressureDelta = minPressureDelta;
+        }
+
+        @Override
+        public void update(float temperature, float humidity, float pressure) {
+            boolean inRange = temperature >= minTemperature && temperature <= maxTemperature;
+            // Pressure is compared with the last reading this observer acted on
+            boolean moved = !(Math.abs(pressure - lastPressure) < minPressureDelta);
+            if (inRange || moved) {
+                lastPressure = pressure;
+                updates++;
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        System.out.printf("%10s %14s %18s %18s%n", "observers", "matched/read", "filtered ns/read", "plain ns/read");
+        for (int observers : OBSERVER_COUNTS) {
+            // Keep total work per row similar; the plain subject is O(observers) per reading
+            int readings = Math.max(2_000, 100_000_000 / observers);
+            WeatherData filtered = new WeatherData();
+            WeatherData plain = new WeatherData();
+            CountingObserver[] counters = new CountingObserver[observers];
+            Random random = new Random(11);
+            for (int i = 0; i < observers; i++) {
+                // Narrow temperature bands and rare, large pressure moves: few observers care about a reading
+                float low = 40 + random.nextFloat() * 60;
+                float high = low + 0.05f;
+                float pressureDelta = 0.5f + random.nextFloat() * 2;
+                counters[i] = new CountingObserver();
+                filtered.registerObserver(counters[i], ObserverFilter.inRange(Measurement.TEMPERATURE, low, high)
+                        .or(ObserverFilter.onChange(Measurement.PRESSURE, pressureDelta)));
+                plain.registerObserver(new SelfFilteringObserver(low, high, pressureDelta));
+            }
+
+            double filteredNanos = run(filtered, readings);
+            double plainNanos = run(plain, readings);
+            long matched = 0;
+            for (CountingObserver counter : counters) {
+                matched += counter.updates;
+            }
+            System.out.printf("%10d %14.1f %18.0f %18.0f%n", observers, matched / (5.0 * readings), filteredNanos, plainNanos);
+        }
+    }
+
+    // Random walk; runs the readings five times (JIT warm-up) and times the last pass
+    private static double run(WeatherData weatherData, int readings) {
+        long nanos = 0;
+        for (int pass = 0; pass < 5; pass++) {
+            Random random = new Random(13);
+            float temperature = 70;
+            float pressure = 30;
+            long start = System.nanoTime();
+            for (int i = 0; i < readings; i++) {
+                temperature = Math.max(40, Math.min(100, temperature + (random.nextFloat() - 0.5f) * 2));
+                pressure = Math.max(28, Math.min(32, pressure + (random.nextFloat() - 0.5f) * 0.2f));
+                weatherData.setMeasurements(temperature, 50, pressure);
+            }
+            nanos = System.nanoTime() - start;
+        }
+        return nanos / (double) readings;
+    }
+}
@@ -1,25 +1,26 @@
 package behvioral.observer;
 
 public class ForecastDisplay implements Observer, DisplayElement {
-    private float lastPressure;
-    private float currentPressure = 29.92f;
+    // 64 readings; in inHg per reading, a trend starts at 0.01 and ends below 0.003
+    private final Forecaster forecaster;
+
+    public ForecastDisplay() {
+        this(new Forecaster(64, 0.01, 0.003));
+    }
+
+    public ForecastDisplay(Forecaster forecaster) {
+        this.forecaster = forecaster;
+    }
 
     @Override
     public void update(float temperature, float humidity, float pressure) {
-        lastPressure = currentPressure;
-        currentPressure = pressure;
+        forecaster.update(temperature, pressure);
         display();
     }
 
     @Override
     public void display() {
         System.out.print("Forecast: ");
-        if (currentPressure > lastPressure) {
-            System.out.println("Improving weather on the way!");
-        } else if (currentPressure == lastPressure) {
-            System.out.println("More of the same");
-        } else if (currentPressure < lastPressure) {
-            System.out.println("Watch out for cooler, rainy weather");
-        }
+        System.out.println(forecaster.getForecast().getMessage());
     }
 }
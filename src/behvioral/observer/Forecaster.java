@@ -0,0 +1,71 @@
+package behvioral.observer;
+
+// Picks a forecast from the pressure trend over the last readings instead of the
+// last two values. The trend is the least-squares slope over a window of
+// readings (pressure units per reading).
+//
+// Hysteresis keeps sensor noise from flipping the message: the slope has to
+// reach enterSlope to leave STEADY, and has to fall back below exitSlope before
+// the forecast returns to STEADY.
+public class Forecaster {
+    public enum Forecast {
+        IMPROVING("Improving weather on the way!"),
+        STEADY("More of the same"),
+        WORSENING("Watch out for cooler, rainy weather");
+
+        private final String message;
+
+        Forecast(String message) {
+            this.message = message;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    private final TrendWindow pressure;
+    private final TrendWindow temperature;
+    private final double enterSlope;
+    private final double exitSlope;
+    private Forecast forecast = Forecast.STEADY;
+
+    public Forecaster(int window, double enterSlope, double exitSlope) {
+        if (exitSlope < 0 || exitSlope > enterSlope) {
+            throw new IllegalArgumentException("Need 0 <= exitSlope <= enterSlope");
+        }
+        this.pressure = new TrendWindow(window);
+        this.temperature = new TrendWindow(window);
+        this.enterSlope = enterSlope;
+        this.exitSlope = exitSlope;
+    }
+
+    public void update(float temperature, float pressure) {
+        this.temperature.add(temperature);
+        this.pressure.add(pressure);
+        double slope = this.pressure.slope();
+        if (forecast == Forecast.IMPROVING && slope < exitSlope
+                || forecast == Forecast.WORSENING && slope > -exitSlope) {
+            forecast = Forecast.STEADY;
+        }
+        if (forecast == Forecast.STEADY) {
+            if (slope >= enterSlope) {
+                forecast = Forecast.IMPROVING;
+            } else if (slope <= -enterSlope) {
+                forecast = Forecast.WORSENING;
+            }
+        }
+    }
+
+    public Forecast getForecast() {
+        return forecast;
+    }
+
+    public double getPressureSlope() {
+        return pressure.slope();
+    }
+
+    public double getTemperatureSlope() {
+        return temperature.slope();
+    }
+}
@@ -0,0 +1,115 @@
+package behvioral.observer;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+// Per-update cost of Forecaster at windows from 64 to 64k readings, against a
+// naive forecaster that refits the whole window on every reading. Also checks
+// that updates allocate nothing, that the incremental slope matches a full
+// refit, and counts how often the message flips on a noisy but flat signal.
+//
+// Usage: ForecasterBenchmark [updates]
+public class ForecasterBenchmark {
+    private static final int[] WINDOWS = {64, 256, 1_024, 4_096, 16_384, 65_536};
+
+    public static void main(String[] args) {
+        int updates = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        // maxSlopeError reads three windows' worth of readings, the naive run one window plus its updates
+        float[] pressures = noisyPressures(Math.max(updates, 3 * 65_536) + 65_536, 42);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        System.out.printf("%-8s%16s%16s%16s%14s%n", "window", "ns/update", "naive ns/update", "bytes/update", "max error");
+        for (int window : WINDOWS) {
+            Forecaster forecaster = new Forecaster(window, 0.01, 0.003);
+            run(forecaster, pressures, updates); // warm-up
+            long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+            long start = System.nanoTime();
+            run(forecaster, pressures, updates);
+            long nanos = System.nanoTime() - start;
+            long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+
+            // The naive refit is O(window), so it gets fewer updates at large windows
+            int naiveUpdates = (int) Math.max(1_000, Math.min(updates, 200_000_000L / window));
+            TrendWindow naive = new TrendWindow(window);
+            for (int i = 0; i < window; i++) {
+                naive.add(pressures[i]);
+            }
+            long naiveStart = System.nanoTime();
+            double sink = 0;
+            for (int i = 0; i < naiveUpdates; i++) {
+                naive.add(pressures[window + i]);
+                naive.resync();
+                sink += naive.slope();
+            }
+            long naiveNanos = System.nanoTime() - naiveStart;
+
+            System.out.printf("%-8d%16.1f%16.1f%16.3f%14.2e%n", window, nanos / (double) updates,
+                    naiveNanos / (double) naiveUpdates, allocated / (double) updates, maxSlopeError(window, pressures));
+            if (Double.isNaN(sink)) {
+                System.out.println(); // keeps the naive loop from being optimized away
+            }
+        }
+
+        System.out.println();
+        System.out.println("Message flips over " + updates + " noisy readings of a flat pressure:");
+        System.out.println("  last two values (old ForecastDisplay): " + lastTwoValueFlips(pressures, updates));
+        System.out.println("  window 64 with hysteresis:            " + flips(new Forecaster(64, 0.01, 0.003), pressures, updates));
+    }
+
+    // Flat 29.92 inHg with +/- 0.02 sensor noise
+    private static float[] noisyPressures(int count, long seed) {
+        Random random = new Random(seed);
+        float[] pressures = new float[count];
+        for (int i = 0; i < count; i++) {
+            pressures[i] = 29.92f + (float) (random.nextGaussian() * 0.02);
+        }
+        return pressures;
+    }
+
+    private static void run(Forecaster forecaster, float[] pressures, int updates) {
+        for (int i = 0; i < updates; i++) {
+            forecaster.update(70, pressures[i]);
+        }
+    }
+
+    // Largest difference between the incremental slope and a full refit at any point
+    private static double maxSlopeError(int window, float[] pressures) {
+        TrendWindow incremental = new TrendWindow(window);
+        TrendWindow exact = new TrendWindow(window);
+        double maxError = 0;
+        for (int i = 0; i < window * 3; i++) {
+            incremental.add(pressures[i]);
+            exact.add(pressures[i]);
+            exact.resync();
+            maxError = Math.max(maxError, Math.abs(incremental.slope() - exact.slope()));
+        }
+        return maxError;
+    }
+
+    private static int flips(Forecaster forecaster, float[] pressures, int updates) {
+        int flips = 0;
+        Forecaster.Forecast last = forecaster.getForecast();
+        for (int i = 0; i < updates; i++) {
+            forecaster.update(70, pressures[i]);
+            if (forecaster.getForecast() != last) {
+                flips++;
+                last = forecaster.getForecast();
+            }
+        }
+        return flips;
+    }
+
+    private static int lastTwoValueFlips(float[] pressures, int updates) {
+        int flips = 0;
+        int last = 0;
+        for (int i = 1; i < updates; i++) {
+            int current = Float.compare(pressures[i], pressures[i - 1]);
+            if (Integer.signum(current) != last) {
+                flips++;
+                last = Integer.signum(current);
+            }
+        }
+        return flips;
+    }
+}
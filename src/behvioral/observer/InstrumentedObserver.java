@@ -0,0 +1,29 @@
+package behvioral.observer;
+
+import structural.decorator.instrumentation.CallMetrics;
+import structural.decorator.instrumentation.MetricsRegistry;
+
+// Decorator that records call count and latency of update()
+public class InstrumentedObserver implements Observer {
+    private final Observer observer;
+    private final CallMetrics updates;
+
+    public InstrumentedObserver(Observer observer) {
+        this(observer, MetricsRegistry.getDefault());
+    }
+
+    public InstrumentedObserver(Observer observer, MetricsRegistry registry) {
+        this.observer = observer;
+        this.updates = registry.metrics("Observer.update/" + observer.getClass().getSimpleName());
+    }
+
+    @Override
+    public void update(float temperature, float humidity, float pressure) {
+        long start = updates.begin();
+        try {
+            observer.update(temperature, humidity, pressure);
+        } finally {
+            updates.end(start);
+        }
+    }
+}
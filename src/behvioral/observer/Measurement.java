@@ -0,0 +1,18 @@
+package behvioral.observer;
+
+public enum Measurement {
+    TEMPERATURE,
+    HUMIDITY,
+    PRESSURE;
+
+    float of(float temperature, float humidity, float pressure) {
+        switch (this) {
+            case TEMPERATURE:
+                return temperature;
+            case HUMIDITY:
+                return humidity;
+            default:
+                return pressure;
+        }
+    }
+}
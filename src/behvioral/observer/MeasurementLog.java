@@ -0,0 +1,231 @@
+package behvioral.observer;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// Append-only log of measurements, stored as fixed-width records in
+// memory-mapped segment files:
+//
+//   long timestampMillis, float temperature, float humidity, float pressure
+//
+// Every record has an offset (0, 1, 2, ... across all segments). Each segment
+// file is named after the offset of its first record and holds a fixed number
+// of records. Old segments are deleted when the log grows past maxBytes or
+// when their newest record is older than maxAgeMillis; the limits are applied
+// when the log is opened, on flush and whenever a new segment is started.
+public class MeasurementLog implements AutoCloseable {
+    static final int RECORD_BYTES = 20;
+    private static final String SUFFIX = ".log";
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final long maxBytes;
+    private final long maxAgeMillis;
+    private final List<Segment> segments = new ArrayList<>();
+    private long lastTimestamp;
+    private boolean closed;
+
+    private static final class Segment {
+        final long baseOffset;
+        final Path path;
+        final MappedByteBuffer buffer;
+        int count;
+
+        Segment(long baseOffset, Path path, MappedByteBuffer buffer) {
+            this.baseOffset = baseOffset;
+            this.path = path;
+            this.buffer = buffer;
+        }
+
+        long timestamp(int index) {
+            return buffer.getLong(index * RECORD_BYTES);
+        }
+    }
+
+    public MeasurementLog(Path directory, int recordsPerSegment, long maxBytes, long maxAgeMillis) throws IOException {
+        if (recordsPerSegment <= 0 || (long) recordsPerSegment * RECORD_BYTES > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid recordsPerSegment: " + recordsPerSegment);
+        }
+        this.directory = Files.createDirectories(directory);
+        this.recordsPerSegment = recordsPerSegment;
+        this.maxBytes = maxBytes;
+        this.maxAgeMillis = maxAgeMillis;
+        recover();
+    }
+
+    public long firstOffset() {
+        ensureOpen();
+        return segments.isEmpty() ? 0 : segments.get(0).baseOffset;
+    }
+
+    // Offset the next appended record will get
+    public long nextOffset() {
+        ensureOpen();
+        if (segments.isEmpty()) {
+            return 0;
+        }
+        Segment last = segments.get(segments.size() - 1);
+        return last.baseOffset + last.count;
+    }
+
+    public long append(float temperature, float humidity, float pressure) throws IOException {
+        ensureOpen();
+        // Timestamps never go backwards, so the log can be searched by time
+        long timestamp = Math.max(System.currentTimeMillis(), Math.max(lastTimestamp, 1));
+        Segment segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (segment == null || segment.count == recordsPerSegment) {
+            segment = roll();
+        }
+        int position = segment.count * RECORD_BYTES;
+        segment.buffer.putFloat(position + 8, temperature);
+        segment.buffer.putFloat(position + 12, humidity);
+        segment.buffer.putFloat(position + 16, pressure);
+        // Timestamp last: a non-zero timestamp marks the record as complete
+        segment.buffer.putLong(position, timestamp);
+        lastTimestamp = timestamp;
+        return segment.baseOffset + segment.count++;
+    }
+
+    // Sends every record from the given offset on to the observer and returns
+    // the offset after the last one replayed
+    public long replay(long fromOffset, Observer observer) {
+        ensureOpen();
+        long offset = Math.max(fromOffset, firstOffset());
+        for (Segment segment : segments) {
+            if (offset >= segment.baseOffset + segment.count) {
+                continue;
+            }
+            MappedByteBuffer buffer = segment.buffer;
+            for (int i = (int) (offset - segment.baseOffset); i < segment.count; i++) {
+                int position = i * RECORD_BYTES;
+                observer.update(buffer.getFloat(position + 8), buffer.getFloat(position + 12), buffer.getFloat(position + 16));
+            }
+            offset = segment.baseOffset + segment.count;
+        }
+        return offset;
+    }
+
+    // Offset of the first record at or after the given time
+    public long offsetAt(long timestampMillis) {
+        ensureOpen();
+        for (Segment segment : segments) {
+            if (segment.count > 0 && segment.timestamp(segment.count - 1) >= timestampMillis) {
+                int low = 0;
+                int high = segment.count - 1;
+                while (low < high) {
+                    int mid = (low + high) >>> 1;
+                    if (segment.timestamp(mid) < timestampMillis) {
+                        low = mid + 1;
+                    } else {
+                        high = mid;
+                    }
+                }
+                return segment.baseOffset + low;
+            }
+        }
+        return nextOffset();
+    }
+
+    // Forces written records to disk, then drops segments past the retention limits
+    public void flush() throws IOException {
+        ensureOpen();
+        for (Segment segment : segments) {
+            segment.buffer.force();
+        }
+        applyRetention();
+    }
+
+    // Forces written records to disk; the log cannot be used afterwards
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (Segment segment : segments) {
+            segment.buffer.force();
+        }
+        segments.clear();
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("MeasurementLog is closed");
+        }
+    }
+
+    private Segment roll() throws IOException {
+        if (!segments.isEmpty()) {
+            segments.get(segments.size() - 1).buffer.force();
+        }
+        Segment segment = map(nextOffset());
+        segments.add(segment);
+        applyRetention();
+        return segment;
+    }
+
+    // Deletes the oldest segments over the size or age limit, never the newest one
+    private void applyRetention() throws IOException {
+        long segmentBytes = (long) recordsPerSegment * RECORD_BYTES;
+        long now = System.currentTimeMillis();
+        while (segments.size() > 1) {
+            Segment oldest = segments.get(0);
+            boolean tooBig = segments.size() * segmentBytes > maxBytes;
+            boolean tooOld = oldest.count > 0 && now - oldest.timestamp(oldest.count - 1) > maxAgeMillis;
+            if (!tooBig && !tooOld) {
+                break;
+            }
+            segments.remove(0);
+            Files.deleteIfExists(oldest.path);
+        }
+    }
+
+    private Segment map(long baseOffset) throws IOException {
+        Path path = directory.resolve(String.format("%020d%s", baseOffset, SUFFIX));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) recordsPerSegment * RECORD_BYTES);
+            return new Segment(baseOffset, path, buffer);
+        }
+    }
+
+    // Reopens existing segments; a segment's record count is the number of
+    // leading records with a non-zero timestamp
+    private void recover() throws IOException {
+        List<Long> baseOffsets = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                baseOffsets.add(Long.parseLong(name.substring(0, name.length() - SUFFIX.length())));
+            }
+        }
+        baseOffsets.sort(null);
+        for (long baseOffset : baseOffsets) {
+            Segment segment = map(baseOffset);
+            int low = 0;
+            int high = recordsPerSegment;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (segment.timestamp(mid) != 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            segment.count = low;
+            segments.add(segment);
+            if (low > 0) {
+                lastTimestamp = Math.max(lastTimestamp, segment.timestamp(low - 1));
+            }
+        }
+        // The limits may have been passed while the log was closed, or changed since
+        applyRetention();
+    }
+}
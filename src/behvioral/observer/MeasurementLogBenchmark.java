@@ -0,0 +1,89 @@
+package behvioral.observer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+// Appends readings through WeatherData in persistence mode, reopens the log as a
+// restarted process would, and lets a late observer catch up from offset 0
+// before it switches to live readings.
+//
+// Usage: MeasurementLogBenchmark [readings] [recordsPerSegment]
+public class MeasurementLogBenchmark {
+    // Counts replayed and live readings; stands in for a restarted StatisticsDisplay
+    static class CountingObserver implements Observer {
+        long updates;
+        double temperatureSum;
+
+        @Override
+        public void update(float temperature, float humidity, float pressure) {
+            updates++;
+            temperatureSum += temperature;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int readings = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        int recordsPerSegment = args.length > 1 ? Integer.parseInt(args[1]) : 1 << 20;
+        Path directory = Files.createTempDirectory("measurements");
+        long segmentBytes = (long) recordsPerSegment * MeasurementLog.RECORD_BYTES;
+        try {
+            // Retention keeps everything here; see the second log below
+            try (MeasurementLog log = new MeasurementLog(directory, recordsPerSegment, Long.MAX_VALUE, Long.MAX_VALUE)) {
+                WeatherData weatherData = new WeatherData();
+                weatherData.enablePersistence(log);
+                long start = System.nanoTime();
+                for (int i = 0; i < readings; i++) {
+                    weatherData.setMeasurements(60 + i % 40, 40 + i % 50, 29 + (i % 20) / 10f);
+                }
+                long appendNanos = System.nanoTime() - start;
+                System.out.printf("append:  %,d readings in %d ms (%.1f ns/reading)%n",
+                        readings, appendNanos / 1_000_000, appendNanos / (double) readings);
+            }
+
+            try (MeasurementLog log = new MeasurementLog(directory, recordsPerSegment, Long.MAX_VALUE, Long.MAX_VALUE)) {
+                System.out.printf("reopen:  offsets %,d..%,d recovered%n", log.firstOffset(), log.nextOffset());
+                WeatherData weatherData = new WeatherData();
+                weatherData.enablePersistence(log);
+
+                CountingObserver late = new CountingObserver();
+                long start = System.nanoTime();
+                long next = weatherData.registerObserverFromOffset(late, 0);
+                long replayNanos = System.nanoTime() - start;
+                System.out.printf("replay:  %,d readings in %d ms (%.1f ns/reading)%n",
+                        late.updates, replayNanos / 1_000_000, replayNanos / (double) late.updates);
+
+                weatherData.setMeasurements(75, 50, 30f);
+                System.out.printf("live:    next offset was %,d, observer has now seen %,d readings, avg temp %.2f%n",
+                        next, late.updates, late.temperatureSum / late.updates);
+
+                CountingObserver recent = new CountingObserver();
+                weatherData.registerObserverSince(recent, System.currentTimeMillis() - 1_000);
+                System.out.printf("since:   %,d readings from the last second%n", recent.updates);
+            }
+
+            // Reopening with a two-segment size limit deletes the oldest segments right away
+            try (MeasurementLog log = new MeasurementLog(directory, recordsPerSegment, 2 * segmentBytes, Long.MAX_VALUE)) {
+                WeatherData weatherData = new WeatherData();
+                weatherData.enablePersistence(log);
+                for (int i = 0; i < recordsPerSegment; i++) {
+                    weatherData.setMeasurements(70, 50, 30f);
+                }
+                System.out.printf("retain:  offsets %,d..%,d kept, %d segment files%n",
+                        log.firstOffset(), log.nextOffset(), countSegments(directory));
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private static long countSegments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package behvioral.observer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Declarative condition for when an observer wants to be notified. A filter is a
+// set of clauses and matches a reading when any of its clauses does:
+//
+//   onChange(PRESSURE, 0.05f)      pressure moved by at least 0.05 since the last reading
+//                                  this observer was notified of
+//   onChange(HUMIDITY)             humidity changed at all since then
+//   inRange(TEMPERATURE, 90, 200)  temperature is between 90 and 200 (inclusive)
+//
+// WeatherData evaluates filters itself, so observers whose filter does not match
+// are never called.
+public final class ObserverFilter {
+    static final class Clause {
+        final Measurement field;
+        final boolean range;
+        final float minDelta;
+        final float min;
+        final float max;
+
+        private Clause(Measurement field, boolean range, float minDelta, float min, float max) {
+            this.field = field;
+            this.range = range;
+            this.minDelta = minDelta;
+            this.min = min;
+            this.max = max;
+        }
+    }
+
+    private final List<Clause> clauses;
+
+    private ObserverFilter(List<Clause> clauses) {
+        this.clauses = Collections.unmodifiableList(clauses);
+    }
+
+    public static ObserverFilter onChange(Measurement field) {
+        return onChange(field, Math.ulp(0f));
+    }
+
+    public static ObserverFilter onChange(Measurement field, float minDelta) {
+        if (!(minDelta > 0)) {
+            throw new IllegalArgumentException("minDelta must be positive: " + minDelta);
+        }
+        return new ObserverFilter(List.of(new Clause(field, false, minDelta, 0, 0)));
+    }
+
+    public static ObserverFilter inRange(Measurement field, float min, float max) {
+        if (!(min <= max)) {
+            throw new IllegalArgumentException("Invalid range: " + min + ".." + max);
+        }
+        return new ObserverFilter(List.of(new Clause(field, true, 0, min, max)));
+    }
+
+    public ObserverFilter or(ObserverFilter other) {
+        List<Clause> combined = new ArrayList<>(clauses);
+        combined.addAll(other.clauses);
+        return new ObserverFilter(combined);
+    }
+
+    List<Clause> clauses() {
+        return clauses;
+    }
+}
@@ -0,0 +1,239 @@
+package behvioral.observer;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Runs many weather stations, each a WeatherData with its own observers, on a
+// fixed number of single-threaded event loops (one per core, typically).
+//
+// A station always lives on the same shard (stationId % shardCount), so its
+// subject and observers are only ever touched by that shard's thread and need
+// no locks. Producers hand readings over in batches through an Ingestor; the
+// batch queues are the only place threads meet.
+//
+// Each shard also keeps a StatisticsAccumulator over all its stations. aggregate()
+// asks every shard for a copy on its own thread and merges the copies.
+//
+// A reading whose station setup or observers throw is counted in failedCount()
+// and skipped; the shard carries on with the next one.
+public class StationEngine implements AutoCloseable {
+    // Called on the shard thread the first time a station sends a reading
+    public interface StationSetup {
+        void setUp(int stationId, WeatherData station);
+    }
+
+    static final int BATCH_SIZE = 256;
+
+    private final Shard[] shards;
+    private final StationSetup setup;
+    private final AtomicLong failed = new AtomicLong();
+    private volatile boolean closed;
+
+    public StationEngine(int shardCount, int queueCapacity, StationSetup setup) {
+        this.setup = setup;
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i, queueCapacity);
+        }
+        for (Shard shard : shards) {
+            shard.thread.start();
+        }
+    }
+
+    public int shardCount() {
+        return shards.length;
+    }
+
+    public long failedCount() {
+        return failed.get();
+    }
+
+    // One per producer thread; an Ingestor is not thread-safe
+    public Ingestor ingestor() {
+        return new Ingestor();
+    }
+
+    // Temperature statistics over every reading processed so far, from all shards
+    public StatisticsAccumulator aggregate() throws InterruptedException {
+        ensureOpen();
+        StatisticsAccumulator[] partials = new StatisticsAccumulator[shards.length];
+        CountDownLatch done = new CountDownLatch(shards.length);
+        for (Shard shard : shards) {
+            Batch query = new Batch();
+            query.task = () -> {
+                try {
+                    partials[shard.index] = shard.stats.copy();
+                } finally {
+                    done.countDown();
+                }
+            };
+            shard.inbox.put(query);
+        }
+        done.await();
+        StatisticsAccumulator total = new StatisticsAccumulator();
+        for (int i = 0; i < partials.length; i++) {
+            if (partials[i] == null) {
+                throw new IllegalStateException("Shard " + i + " could not copy its statistics");
+            }
+            total.merge(partials[i]);
+        }
+        return total;
+    }
+
+    // Processes everything already queued, then stops the event loops.
+    // If interrupted while waiting, the shards are interrupted too.
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            for (Shard shard : shards) {
+                shard.inbox.put(Batch.STOP);
+            }
+            for (Shard shard : shards) {
+                shard.thread.join();
+            }
+        } catch (InterruptedException e) {
+            for (Shard shard : shards) {
+                shard.thread.interrupt();
+            }
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Stopped shards never drain their inboxes, so waiting on one would hang
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("StationEngine is closed");
+        }
+    }
+
+    private static final class Batch {
+        static final Batch STOP = new Batch();
+
+        final int[] stationIds = new int[BATCH_SIZE];
+        final float[] temperatures = new float[BATCH_SIZE];
+        final float[] humidities = new float[BATCH_SIZE];
+        final float[] pressures = new float[BATCH_SIZE];
+        int size;
+        Runnable task;
+    }
+
+    public final class Ingestor {
+        private final Batch[] pending = new Batch[shards.length];
+
+        private Ingestor() {
+        }
+
+        public void publish(int stationId, float temperature, float humidity, float pressure) throws InterruptedException {
+            ensureOpen();
+            if (stationId < 0) {
+                throw new IllegalArgumentException("Invalid station id: " + stationId);
+            }
+            int shardIndex = stationId % shards.length;
+            Batch batch = pending[shardIndex];
+            if (batch == null) {
+                batch = shards[shardIndex].emptyBatch();
+                pending[shardIndex] = batch;
+            }
+            int i = batch.size++;
+            batch.stationIds[i] = stationId;
+            batch.temperatures[i] = temperature;
+            batch.humidities[i] = humidity;
+            batch.pressures[i] = pressure;
+            if (batch.size == BATCH_SIZE) {
+                pending[shardIndex] = null;
+                // Blocks when the shard is behind, so producers slow down to its pace
+                shards[shardIndex].inbox.put(batch);
+            }
+        }
+
+        // Hands over partly filled batches
+        public void flush() throws InterruptedException {
+            ensureOpen();
+            for (int i = 0; i < pending.length; i++) {
+                if (pending[i] != null) {
+                    shards[i].inbox.put(pending[i]);
+                    pending[i] = null;
+                }
+            }
+        }
+    }
+
+    private final class Shard implements Runnable {
+        final int index;
+        final ArrayBlockingQueue<Batch> inbox;
+        // Processed batches come back here for reuse instead of becoming garbage
+        final ArrayBlockingQueue<Batch> free;
+        final Thread thread;
+        final StatisticsAccumulator stats = new StatisticsAccumulator();
+        // Indexed by stationId / shardCount; only this shard's thread touches it
+        WeatherData[] stations = new WeatherData[16];
+
+        Shard(int index, int queueCapacity) {
+            this.index = index;
+            this.inbox = new ArrayBlockingQueue<>(queueCapacity);
+            this.free = new ArrayBlockingQueue<>(queueCapacity * 2);
+            this.thread = new Thread(this, "station-shard-" + index);
+        }
+
+        Batch emptyBatch() {
+            Batch batch = free.poll();
+            return batch != null ? batch : new Batch();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    Batch batch = inbox.take();
+                    if (batch == Batch.STOP) {
+                        return;
+                    }
+                    if (batch.task != null) {
+                        try {
+                            batch.task.run();
+                        } catch (RuntimeException e) {
+                            System.err.println("Shard " + index + " task failed: " + e);
+                        }
+                        continue;
+                    }
+                    // One failing station must not stop the shard: the loop would die
+                    // and producers and aggregate() would wait on it forever
+                    for (int i = 0; i < batch.size; i++) {
+                        try {
+                            station(batch.stationIds[i]).setMeasurements(
+                                    batch.temperatures[i], batch.humidities[i], batch.pressures[i]);
+                        } catch (RuntimeException e) {
+                            failed.incrementAndGet();
+                            System.err.println("Station " + batch.stationIds[i] + " failed: " + e);
+                        }
+                    }
+                    batch.size = 0;
+                    free.offer(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private WeatherData station(int stationId) {
+            int local = stationId / shards.length;
+            if (local >= stations.length) {
+                stations = Arrays.copyOf(stations, Math.max(local + 1, stations.length * 2));
+            }
+            WeatherData station = stations[local];
+            if (station == null) {
+                station = new WeatherData();
+                station.registerObserver(stats);
+                setup.setUp(stationId, station);
+                stations[local] = station;
+            }
+            return station;
+        }
+    }
+}
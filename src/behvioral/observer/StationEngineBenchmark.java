@@ -0,0 +1,67 @@
+package behvioral.observer;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Total readings per second through StationEngine as the number of shards goes
+// from 1 to N. Every station has its own statistics observer plus a filtered one,
+// and there is one producer thread per shard.
+//
+// Usage: StationEngineBenchmark [stations] [maxShards] [millisPerRun]
+public class StationEngineBenchmark {
+    public static void main(String[] args) throws InterruptedException {
+        int stations = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int maxShards = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long millisPerRun = args.length > 2 ? Long.parseLong(args[2]) : 2_000;
+
+        run(stations, 1, millisPerRun); // warm-up
+        System.out.printf("%-8s%16s%16s%n", "shards", "readings/sec", "per shard");
+        for (int shards = 1; shards <= maxShards; shards++) {
+            double perSecond = run(stations, shards, millisPerRun);
+            System.out.printf("%-8d%,16.0f%,16.0f%n", shards, perSecond, perSecond / shards);
+        }
+    }
+
+    private static double run(int stations, int shards, long millis) throws InterruptedException {
+        ObserverFilter hot = ObserverFilter.inRange(Measurement.TEMPERATURE, 95, Float.MAX_VALUE);
+        StationEngine engine = new StationEngine(shards, 64, (stationId, station) -> {
+            station.registerObserver(new StatisticsAccumulator());
+            station.registerObserver(new StatisticsAccumulator(), hot);
+        });
+        AtomicLong published = new AtomicLong();
+        long deadline = System.nanoTime() + millis * 1_000_000;
+        Thread[] producers = new Thread[shards];
+        for (int p = 0; p < shards; p++) {
+            int first = p;
+            producers[p] = new Thread(() -> {
+                StationEngine.Ingestor ingestor = engine.ingestor();
+                long count = 0;
+                try {
+                    while (System.nanoTime() < deadline) {
+                        for (int i = 0; i < 1_000; i++, count++) {
+                            int stationId = (int) ((first + count * shards) % stations);
+                            ingestor.publish(stationId, 60 + count % 40, 50, 29.5f + (count % 10) / 10f);
+                        }
+                    }
+                    ingestor.flush();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                published.addAndGet(count);
+            });
+        }
+        long start = System.nanoTime();
+        for (Thread producer : producers) {
+            producer.start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        StatisticsAccumulator total = engine.aggregate();
+        long elapsed = System.nanoTime() - start;
+        engine.close();
+        if (total.getNumReadings() != published.get()) {
+            throw new IllegalStateException("published " + published.get() + " but processed " + total.getNumReadings());
+        }
+        return total.getNumReadings() * 1e9 / elapsed;
+    }
+}
@@ -0,0 +1,53 @@
+package behvioral.observer;
+
+// The running temperature statistics of StatisticsDisplay without the printing,
+// so partial stats from several stations or shards can be merged
+public class StatisticsAccumulator implements Observer {
+    private float maxTemp = Float.NEGATIVE_INFINITY;
+    private float minTemp = Float.POSITIVE_INFINITY;
+    private double tempSum;
+    private long numReadings;
+
+    @Override
+    public void update(float temperature, float humidity, float pressure) {
+        tempSum += temperature;
+        numReadings++;
+        maxTemp = Math.max(maxTemp, temperature);
+        minTemp = Math.min(minTemp, temperature);
+    }
+
+    public void merge(StatisticsAccumulator other) {
+        tempSum += other.tempSum;
+        numReadings += other.numReadings;
+        maxTemp = Math.max(maxTemp, other.maxTemp);
+        minTemp = Math.min(minTemp, other.minTemp);
+    }
+
+    public StatisticsAccumulator copy() {
+        StatisticsAccumulator copy = new StatisticsAccumulator();
+        copy.merge(this);
+        return copy;
+    }
+
+    public long getNumReadings() {
+        return numReadings;
+    }
+
+    public float getAverage() {
+        return numReadings == 0 ? Float.NaN : (float) (tempSum / numReadings);
+    }
+
+    public float getMax() {
+        return maxTemp;
+    }
+
+    public float getMin() {
+        return minTemp;
+    }
+
+    @Override
+    public String toString() {
+        return "Avg/Max/Min temperature = " + getAverage() + "/" + maxTemp + "/" + minTemp
+                + " over " + numReadings + " readings";
+    }
+}
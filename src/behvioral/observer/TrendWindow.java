@@ -0,0 +1,72 @@
+package behvioral.observer;
+
+// The last n samples of one measurement in a primitive ring buffer, with the
+// least-squares slope over them (per reading) kept up to date in O(1):
+//
+//   sum      = Σ y_i
+//   weighted = Σ i * y_i      (i = 0 for the oldest sample)
+//
+// When the window slides, every remaining sample moves one index down, which
+// takes (sum - oldest) off weighted; the new sample comes in at index n - 1.
+// Once every n updates the sums are recomputed from the buffer so rounding
+// errors cannot pile up, which keeps the cost O(1) amortized.
+class TrendWindow {
+    private final float[] samples;
+    private int next; // slot for the next sample; the oldest sample once full
+    private int count;
+    private double sum;
+    private double weighted;
+    private int sinceResync;
+
+    TrendWindow(int size) {
+        if (size < 2) {
+            throw new IllegalArgumentException("Window must hold at least 2 samples: " + size);
+        }
+        this.samples = new float[size];
+    }
+
+    void add(float value) {
+        int n = samples.length;
+        if (count < n) {
+            weighted += count * (double) value;
+            sum += value;
+            count++;
+        } else {
+            float oldest = samples[next];
+            weighted += (n - 1) * (double) value - (sum - oldest);
+            sum += value - oldest;
+        }
+        samples[next] = value;
+        next = next + 1 == n ? 0 : next + 1;
+        if (++sinceResync == n) {
+            resync();
+        }
+    }
+
+    // Slope of the least-squares line through the window; 0 with fewer than 2 samples
+    double slope() {
+        int n = count;
+        if (n < 2) {
+            return 0;
+        }
+        double sumI = n * (n - 1.0) / 2;
+        double sumII = (n - 1) * (double) n * (2 * n - 1) / 6.0;
+        return (n * weighted - sumI * sum) / (n * sumII - sumI * sumI);
+    }
+
+    // Recomputes both sums from the buffer in O(n)
+    void resync() {
+        int n = samples.length;
+        int oldest = count < n ? 0 : next;
+        double newSum = 0;
+        double newWeighted = 0;
+        for (int i = 0; i < count; i++) {
+            float value = samples[oldest + i < n ? oldest + i : oldest + i - n];
+            newSum += value;
+            newWeighted += i * (double) value;
+        }
+        sum = newSum;
+        weighted = newWeighted;
+        sinceResync = 0;
+    }
+}
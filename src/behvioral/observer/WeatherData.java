@@ -1,13 +1,17 @@
 package behvioral.observer;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
 
 public class WeatherData implements Subject {
     private List<Observer> observers;
+    private final FilterIndex filteredObservers = new FilterIndex();
     private float temperature;
     private float humidity;
     private float pressure;
+    private MeasurementLog log;
 
     public WeatherData() {
         observers = new ArrayList<>();
@@ -18,9 +22,42 @@ public class WeatherData implements Subject {
         observers.add(observer);
     }
 
+    // The observer is only notified of readings that match the filter
+    public void registerObserver(Observer observer, ObserverFilter filter) {
+        filteredObservers.add(observer, filter);
+    }
+
+    // Persistence mode: every reading is appended to the log before observers are notified
+    public void enablePersistence(MeasurementLog log) {
+        this.log = log;
+    }
+
+    // Replays the logged readings from the given offset, then keeps the observer
+    // on live updates. Replay runs on the caller's thread, like setMeasurements,
+    // so no reading is missed or seen twice between the two.
+    public long registerObserverFromOffset(Observer observer, long fromOffset) {
+        long next = requireLog().replay(fromOffset, observer);
+        observers.add(observer);
+        return next;
+    }
+
+    // Same as registerObserverFromOffset, starting at the first reading at or after the given time
+    public long registerObserverSince(Observer observer, long timestampMillis) {
+        return registerObserverFromOffset(observer, requireLog().offsetAt(timestampMillis));
+    }
+
+    private MeasurementLog requireLog() {
+        if (log == null) {
+            throw new IllegalStateException("Persistence is not enabled");
+        }
+        return log;
+    }
+
     @Override
     public void removeObserver(Observer observer) {
-        observers.remove(observer);
+        if (!filteredObservers.remove(observer)) {
+            observers.remove(observer);
+        }
     }
 
     @Override
@@ -28,13 +65,22 @@ public class WeatherData implements Subject {
         for (Observer observer : observers) {
             observer.update(temperature, humidity, pressure);
         }
+        if (!filteredObservers.isEmpty()) {
+            filteredObservers.notifyMatching(temperature, humidity, pressure);
+        }
     }
 
     public void setMeasurements(float temperature, float humidity, float pressure) {
         this.temperature = temperature;
         this.humidity = humidity;
         this.pressure = pressure;
+        if (log != null) {
+            try {
+                log.append(temperature, humidity, pressure);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
         notifyObservers();
     }
 }
-
@@ -15,24 +15,14 @@ public class Application {
     }
 
     public static void main(String[] args) {
-        GUIFactory factory = null;
-
         // Example: Based on the OS, choose a factory
-        String os = OsType.WINDOWS.toString(); // Or dynamically determine this
+        String os = OsType.WINDOWS.toString(); // Or use GUIFactoryRegistry.forCurrentOs()
 
-        if (os.equalsIgnoreCase(OsType.WINDOWS.toString())) {
-            factory = new WindowsFactory();
-        } else if (os.equalsIgnoreCase(OsType.MAC.toString())) {
-            factory = new MacFactory();
-        }else if (os.equalsIgnoreCase(OsType.LINUX.toString())){
-            throw new RuntimeException("not Implemented os");
-        }else {
-            throw new RuntimeException("Invalid os");
-        }
+        GUIFactory factory = GUIFactoryRegistry.get(OsType.fromName(os));
 
         // Create an application with the chosen factory
         Application app = new Application(factory);
-        app.paint();  // Output depends on the OS: Windows or Mac
+        app.paint();  // Output depends on the OS: Windows, Mac or Linux
     }
 }
 
@@ -1,5 +1,5 @@
 package creational.bastractFactory;
 
-public interface Button {
+public interface Button extends Widget {
     void paint();
 }
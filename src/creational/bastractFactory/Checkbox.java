@@ -1,5 +1,5 @@
 package creational.bastractFactory;
 
-public interface Checkbox {
+public interface Checkbox extends Widget {
     void paint();
 }
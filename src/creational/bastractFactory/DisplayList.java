@@ -0,0 +1,41 @@
+package creational.bastractFactory;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+
+// Reusable buffer of draw commands. Widgets record into it during a frame and
+// the whole frame is written out in one batch. Clearing keeps the arrays, so a
+// steady stream of frames allocates nothing once the buffers have grown.
+public class DisplayList {
+    private String[] commands = new String[64];
+    private int size;
+    private final StringBuilder batch = new StringBuilder();
+
+    public void add(String command) {
+        if (size == commands.length) {
+            commands = Arrays.copyOf(commands, size * 2);
+        }
+        commands[size++] = command;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    // Writes every recorded command with a single call on the output stream
+    public void flush(PrintStream out) {
+        if (size == 0) {
+            return;
+        }
+        batch.setLength(0);
+        for (int i = 0; i < size; i++) {
+            batch.append(commands[i]).append(System.lineSeparator());
+        }
+        out.print(batch);
+        out.flush();
+    }
+}
@@ -0,0 +1,72 @@
+package creational.bastractFactory;
+
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+
+// Compares picking a factory per application the old way (string comparison,
+// a new factory and new widgets every time) with GUIFactoryRegistry and its
+// shared flyweight widgets. Reports the cost of the first lookup, then time
+// and allocated bytes per application.
+// Usage: FactoryRegistryBenchmark [applications]
+public class FactoryRegistryBenchmark {
+    private static final Widget[] sink = new Widget[1024];
+
+    public static void main(String[] args) {
+        int applications = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        ClassLoadingMXBean classLoading = ManagementFactory.getClassLoadingMXBean();
+
+        long classesBefore = classLoading.getTotalLoadedClassCount();
+        long start = System.nanoTime();
+        GUIFactory first = GUIFactoryRegistry.get(OsType.WINDOWS);
+        first.createButton();
+        long firstLookupNanos = System.nanoTime() - start;
+        long classesLoaded = classLoading.getTotalLoadedClassCount() - classesBefore;
+        System.out.printf("First registry lookup: %.1f us, %d classes loaded%n",
+                firstLookupNanos / 1_000.0, classesLoaded);
+
+        for (int round = 0; round < 3; round++) {
+            report("without registry", applications, () -> withoutRegistry(applications));
+            report("with registry", applications, () -> withRegistry(applications));
+        }
+    }
+
+    // What Application.main and the factories did before the registry existed
+    private static void withoutRegistry(int applications) {
+        String os = OsType.WINDOWS.toString();
+        for (int i = 0; i < applications; i++) {
+            Button button;
+            Checkbox checkbox;
+            if (os.equalsIgnoreCase(OsType.WINDOWS.toString())) {
+                button = new WindowsButton();
+                checkbox = new WindowsCheckbox();
+            } else if (os.equalsIgnoreCase(OsType.MAC.toString())) {
+                button = new MacButton();
+                checkbox = new MacCheckbox();
+            } else {
+                throw new RuntimeException("Invalid os");
+            }
+            sink[i & 1023] = button;
+            sink[(i + 1) & 1023] = checkbox;
+        }
+    }
+
+    private static void withRegistry(int applications) {
+        for (int i = 0; i < applications; i++) {
+            GUIFactory factory = GUIFactoryRegistry.get(OsType.WINDOWS);
+            sink[i & 1023] = factory.createButton();
+            sink[(i + 1) & 1023] = factory.createCheckbox();
+        }
+    }
+
+    private static void report(String name, int applications, Runnable run) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long bytesBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        run.run();
+        long nanos = System.nanoTime() - start;
+        long bytes = threads.getCurrentThreadAllocatedBytes() - bytesBefore;
+        System.out.printf("%-17s %8.2f ns/app %8.2f bytes/app %10.1f MB/s allocated%n", name,
+                nanos / (double) applications, bytes / (double) applications,
+                bytes / 1e6 / (nanos / 1e9));
+    }
+}
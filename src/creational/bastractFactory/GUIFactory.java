@@ -1,6 +1,6 @@
 package creational.bastractFactory;
 
-interface GUIFactory {
+public interface GUIFactory {
     Button createButton();
     Checkbox createCheckbox();
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package creational.bastractFactory;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+// One GUIFactory per OsType, created on first request. The switch below is the
+// only place that names the concrete factories, so a family that is never
+// requested is never loaded.
+public final class GUIFactoryRegistry {
+    // Copy-on-write: lookups read a published map without locking, and the rare
+    // first request for a family publishes a new copy
+    private static volatile Map<OsType, GUIFactory> factories = new EnumMap<>(OsType.class);
+
+    private GUIFactoryRegistry() {
+    }
+
+    public static GUIFactory get(OsType os) {
+        GUIFactory factory = factories.get(os);
+        return factory != null ? factory : createAndPublish(os);
+    }
+
+    public static GUIFactory forCurrentOs() {
+        return get(OsType.fromName(System.getProperty("os.name")));
+    }
+
+    private static synchronized GUIFactory createAndPublish(OsType os) {
+        GUIFactory factory = factories.get(os);
+        if (factory == null) {
+            factory = create(os);
+            Map<OsType, GUIFactory> copy = new EnumMap<>(factories);
+            copy.put(os, factory);
+            factories = copy;
+        }
+        return factory;
+    }
+
+    private static GUIFactory create(OsType os) {
+        switch (os) {
+            case WINDOWS:
+                return new WindowsFactory();
+            case MAC:
+                return new MacFactory();
+            case LINUX:
+                return new LinuxFactory();
+            default:
+                throw new IllegalArgumentException("Invalid os: " + os);
+        }
+    }
+}
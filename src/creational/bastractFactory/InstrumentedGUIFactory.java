@@ -0,0 +1,42 @@
+package creational.bastractFactory;
+
+import structural.decorator.instrumentation.CallMetrics;
+import structural.decorator.instrumentation.MetricsRegistry;
+
+// Decorator that records call count and latency of the factory's creation methods
+public class InstrumentedGUIFactory implements GUIFactory {
+    private final GUIFactory factory;
+    private final CallMetrics buttons;
+    private final CallMetrics checkboxes;
+
+    public InstrumentedGUIFactory(GUIFactory factory) {
+        this(factory, MetricsRegistry.getDefault());
+    }
+
+    public InstrumentedGUIFactory(GUIFactory factory, MetricsRegistry registry) {
+        this.factory = factory;
+        String type = factory.getClass().getSimpleName();
+        this.buttons = registry.metrics("GUIFactory.createButton/" + type);
+        this.checkboxes = registry.metrics("GUIFactory.createCheckbox/" + type);
+    }
+
+    @Override
+    public Button createButton() {
+        long start = buttons.begin();
+        try {
+            return factory.createButton();
+        } finally {
+            buttons.end(start);
+        }
+    }
+
+    @Override
+    public Checkbox createCheckbox() {
+        long start = checkboxes.begin();
+        try {
+            return factory.createCheckbox();
+        } finally {
+            checkboxes.end(start);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package creational.bastractFactory;
+
+class LinuxCheckbox implements Checkbox {
+    private static final String LABEL = "Rendering a Linux-styled checkbox.";
+
+    @Override
+    public void paint() {
+        System.out.println(LABEL);
+    }
+
+    @Override
+    public void record(DisplayList displayList) {
+        displayList.add(LABEL);
+    }
+}
@@ -0,0 +1,17 @@
+package creational.bastractFactory;
+
+// Concrete Factory: LinuxFactory
+class LinuxFactory implements GUIFactory {
+    private final Button button = new LinuxButton();
+    private final Checkbox checkbox = new LinuxCheckbox();
+
+    @Override
+    public Button createButton() {
+        return button;
+    }
+
+    @Override
+    public Checkbox createCheckbox() {
+        return checkbox;
+    }
+}
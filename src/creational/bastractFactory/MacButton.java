@@ -1,8 +1,15 @@
 package creational.bastractFactory;
 
 public class MacButton implements Button{
+    private static final String LABEL = "Rendering a MacOS-styled button.";
+
     @Override
     public void paint() {
-        System.out.println("Rendering a MacOS-styled button.");
+        System.out.println(LABEL);
+    }
+
+    @Override
+    public void record(DisplayList displayList) {
+        displayList.add(LABEL);
     }
 }
@@ -1,8 +1,15 @@
 package creational.bastractFactory;
 
 class MacCheckbox implements Checkbox {
+    private static final String LABEL = "Rendering a MacOS-styled checkbox.";
+
     @Override
     public void paint() {
-        System.out.println("Rendering a MacOS-styled checkbox.");
+        System.out.println(LABEL);
+    }
+
+    @Override
+    public void record(DisplayList displayList) {
+        displayList.add(LABEL);
     }
 }
\ No newline at end of file
@@ -2,13 +2,16 @@ package creational.bastractFactory;
 
 // Concrete Factory: MacFactory
 class MacFactory implements GUIFactory {
+    private final Button button = new MacButton();
+    private final Checkbox checkbox = new MacCheckbox();
+
     @Override
     public Button createButton() {
-        return new MacButton();
+        return button;
     }
 
     @Override
     public Checkbox createCheckbox() {
-        return new MacCheckbox();
+        return checkbox;
     }
-}
\ No newline at end of file
+}
@@ -1,7 +1,23 @@
 package creational.bastractFactory;
 
+import java.util.Locale;
+
 public enum OsType {
     WINDOWS,
     MAC,
-    LINUX
+    LINUX;
+
+    // Maps an os.name style string ("Windows 11", "Mac OS X", "Linux") to its family
+    public static OsType fromName(String osName) {
+        // Locale.ROOT: under a Turkish default locale "WINDOWS" would lower-case to "wındows"
+        String name = osName.toLowerCase(Locale.ROOT);
+        if (name.startsWith("windows")) {
+            return WINDOWS;
+        } else if (name.startsWith("mac")) {
+            return MAC;
+        } else if (name.startsWith("linux")) {
+            return LINUX;
+        }
+        throw new IllegalArgumentException("Invalid os: " + osName);
+    }
 }
@@ -0,0 +1,70 @@
+package creational.bastractFactory;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Random;
+
+// Compares frame time of direct painting (one println per widget) with the
+// display-list Screen, both for a full redraw and when 1% of widgets changed.
+// Output goes to a discarding stream so only the rendering path is measured.
+// Usage: RenderBenchmark [frames]
+public class RenderBenchmark {
+    private static final int[] WIDGET_COUNTS = {10_000, 100_000, 1_000_000};
+
+    public static void main(String[] args) {
+        int frames = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        PrintStream console = System.out;
+        PrintStream sink = new PrintStream(OutputStream.nullOutputStream());
+        GUIFactory factory = new WindowsFactory();
+
+        console.printf("%10s %14s %14s %14s%n", "widgets", "direct ms", "full list ms", "1% dirty ms");
+        for (int widgetCount : WIDGET_COUNTS) {
+            Widget[] widgets = new Widget[widgetCount];
+            Screen screen = new Screen(factory);
+            for (int i = 0; i < widgetCount; i++) {
+                boolean button = i % 2 == 0;
+                widgets[i] = button ? factory.createButton() : factory.createCheckbox();
+                if (button) {
+                    screen.addButton();
+                } else {
+                    screen.addCheckbox();
+                }
+            }
+
+            System.setOut(sink);
+            try {
+                double direct = averageMillis(frames, () -> {
+                    for (Widget widget : widgets) {
+                        widget.paint();
+                    }
+                });
+                double fullList = averageMillis(frames, () -> {
+                    screen.invalidateAll();
+                    screen.renderFrame(sink);
+                });
+                Random random = new Random(7);
+                double partial = averageMillis(frames, () -> {
+                    for (int i = 0; i < widgetCount / 100; i++) {
+                        screen.invalidate(random.nextInt(widgetCount));
+                    }
+                    screen.renderFrame(sink);
+                });
+                console.printf("%10d %14.2f %14.2f %14.2f%n", widgetCount, direct, fullList, partial);
+            } finally {
+                System.setOut(console);
+            }
+        }
+    }
+
+    // Runs a few warm-up frames, then returns the average time of the measured ones
+    private static double averageMillis(int frames, Runnable frame) {
+        for (int i = 0; i < 3; i++) {
+            frame.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < frames; i++) {
+            frame.run();
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / frames;
+    }
+}
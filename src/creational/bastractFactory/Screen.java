@@ -0,0 +1,77 @@
+package creational.bastractFactory;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.BitSet;
+
+// Holds the widgets of one screen and renders them through a display list.
+// Only widgets invalidated since the previous frame are recorded again.
+public class Screen {
+    private final GUIFactory factory;
+    private final DisplayList displayList = new DisplayList();
+    private final BitSet dirty = new BitSet();
+    private Widget[] widgets = new Widget[16];
+    private int widgetCount;
+
+    public Screen(GUIFactory factory) {
+        this.factory = factory;
+    }
+
+    public int addButton() {
+        return add(factory.createButton());
+    }
+
+    public int addCheckbox() {
+        return add(factory.createCheckbox());
+    }
+
+    public int widgetCount() {
+        return widgetCount;
+    }
+
+    // Marks a widget as changed so the next frame draws it again
+    public void invalidate(int widgetId) {
+        if (widgetId < 0 || widgetId >= widgetCount) {
+            throw new IndexOutOfBoundsException("Widget " + widgetId + " out of bounds for " + widgetCount + " widgets");
+        }
+        dirty.set(widgetId);
+    }
+
+    public void invalidateAll() {
+        dirty.set(0, widgetCount);
+    }
+
+    // Records every dirty widget, writes the frame in one batch and returns
+    // how many widgets were drawn
+    public int renderFrame(PrintStream out) {
+        displayList.clear();
+        for (int id = dirty.nextSetBit(0); id >= 0; id = dirty.nextSetBit(id + 1)) {
+            widgets[id].record(displayList);
+        }
+        int drawn = displayList.size();
+        dirty.clear();
+        displayList.flush(out);
+        return drawn;
+    }
+
+    private int add(Widget widget) {
+        if (widgetCount == widgets.length) {
+            widgets = Arrays.copyOf(widgets, widgetCount * 2);
+        }
+        widgets[widgetCount] = widget;
+        dirty.set(widgetCount);
+        return widgetCount++;
+    }
+
+    public static void main(String[] args) {
+        Screen screen = new Screen(new MacFactory());
+        int ok = screen.addButton();
+        screen.addCheckbox();
+
+        System.out.println("Frame 1 drew " + screen.renderFrame(System.out) + " widgets");
+        System.out.println("Frame 2 drew " + screen.renderFrame(System.out) + " widgets"); // nothing changed
+
+        screen.invalidate(ok);
+        System.out.println("Frame 3 drew " + screen.renderFrame(System.out) + " widgets");
+    }
+}
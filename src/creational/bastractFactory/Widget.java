@@ -0,0 +1,10 @@
+package creational.bastractFactory;
+
+// Common supertype of every product a GUIFactory creates
+public interface Widget {
+    // Draws the widget straight to the console
+    void paint();
+
+    // Appends the widget's draw commands to a display list instead of drawing now
+    void record(DisplayList displayList);
+}
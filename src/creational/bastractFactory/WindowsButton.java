@@ -1,8 +1,15 @@
 package creational.bastractFactory;
 
 public class WindowsButton implements Button{
+    private static final String LABEL = "Rendering a Windows-styled button.";
+
     @Override
     public void paint() {
-        System.out.println("Rendering a Windows-styled button.");
+        System.out.println(LABEL);
+    }
+
+    @Override
+    public void record(DisplayList displayList) {
+        displayList.add(LABEL);
     }
 }
@@ -1,13 +1,17 @@
 package creational.bastractFactory;
 
+// The widgets are stateless, so one shared (flyweight) instance of each is enough
 class WindowsFactory implements GUIFactory {
+    private final Button button = new WindowsButton();
+    private final Checkbox checkbox = new WindowsCheckbox();
+
     @Override
     public Button createButton() {
-        return new WindowsButton();
+        return button;
     }
 
     @Override
     public Checkbox createCheckbox() {
-        return new WindowsCheckbox();
+        return checkbox;
     }
-}
\ No newline at end of file
+}
@@ -18,6 +18,30 @@ public class House {
         this.hasSwimmingPool = builder.hasSwimmingPool;
     }
 
+    public String getFoundation() {
+        return foundation;
+    }
+
+    public String getWalls() {
+        return walls;
+    }
+
+    public String getRoof() {
+        return roof;
+    }
+
+    public int getNumberOfRooms() {
+        return numberOfRooms;
+    }
+
+    public boolean hasGarage() {
+        return hasGarage;
+    }
+
+    public boolean hasSwimmingPool() {
+        return hasSwimmingPool;
+    }
+
     @Override
     public String toString() {
         return "House with " + foundation + " foundation, " + walls + " walls, " +
@@ -65,9 +89,39 @@ public class House {
             return this;
         }
 
+        public String getFoundation() {
+            return foundation;
+        }
+
+        public String getWalls() {
+            return walls;
+        }
+
+        public String getRoof() {
+            return roof;
+        }
+
+        public int getNumberOfRooms() {
+            return numberOfRooms;
+        }
+
+        public boolean hasGarage() {
+            return hasGarage;
+        }
+
+        public boolean hasSwimmingPool() {
+            return hasSwimmingPool;
+        }
+
         public House build() {
             return new House(this);
         }
+
+        // Bulk path: appends the house to a columnar store instead of creating
+        // a House object, and returns its index in the store
+        public int buildInto(HouseStore store) {
+            return store.append(foundation, walls, roof, numberOfRooms, hasGarage, hasSwimmingPool);
+        }
     }
 
     public static void main(String[] args) {
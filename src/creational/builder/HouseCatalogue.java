@@ -0,0 +1,150 @@
+package creational.builder;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+// Read-only, memory-mapped file of encoded houses. Opening a catalogue reads the
+// header and the string dictionary only; records are decoded when asked for,
+// straight from the mapped file.
+//
+// Layout (big-endian):
+//   int magic, int version, int houseCount, int dictionarySize,
+//   long indexOffset, long dataOffset,
+//   dictionary strings, index (int offset of each record), records
+public class HouseCatalogue {
+    private static final int MAGIC = 0x484F5553; // "HOUS"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+
+    private final MappedByteBuffer file;
+    private final HouseCodec codec;
+    private final int size;
+    private final int indexOffset;
+    private final int dataOffset;
+
+    private HouseCatalogue(MappedByteBuffer file, HouseCodec codec, int size, int indexOffset, int dataOffset) {
+        this.file = file;
+        this.codec = codec;
+        this.size = size;
+        this.indexOffset = indexOffset;
+        this.dataOffset = dataOffset;
+    }
+
+    public static void write(Path path, Iterable<House> houses) throws IOException {
+        StringDictionary dictionary = new StringDictionary();
+        HouseCodec codec = HouseCodec.withDictionary(dictionary);
+        ByteBuffer data = ByteBuffer.allocate(1 << 16);
+        int[] offsets = new int[1024];
+        int count = 0;
+        for (House house : houses) {
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, count * 2);
+            }
+            offsets[count++] = data.position();
+            while (true) {
+                try {
+                    codec.encode(house, data);
+                    break;
+                } catch (BufferOverflowException e) {
+                    data = ByteBuffer.allocate(data.capacity() * 2).put(data.flip());
+                }
+            }
+        }
+        data.flip();
+
+        ByteBuffer dictionaryBytes = ByteBuffer.allocate(1 << 12);
+        for (int code = 0; code < dictionary.size(); code++) {
+            while (true) {
+                int start = dictionaryBytes.position();
+                try {
+                    HouseCodec.writeRawString(dictionary.decode(code), dictionaryBytes);
+                    break;
+                } catch (BufferOverflowException e) {
+                    dictionaryBytes.position(start);
+                    dictionaryBytes = ByteBuffer.allocate(dictionaryBytes.capacity() * 2).put(dictionaryBytes.flip());
+                }
+            }
+        }
+        dictionaryBytes.flip();
+
+        long indexOffset = HEADER_BYTES + dictionaryBytes.remaining();
+        long dataOffset = indexOffset + 4L * count;
+        if (dataOffset + data.remaining() > Integer.MAX_VALUE) {
+            throw new IOException("Catalogue larger than 2 GB is not supported");
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                .putInt(MAGIC).putInt(VERSION).putInt(count).putInt(dictionary.size())
+                .putLong(indexOffset).putLong(dataOffset)
+                .flip();
+        ByteBuffer index = ByteBuffer.allocate(4 * count);
+        index.asIntBuffer().put(offsets, 0, count);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer[] parts = {header, dictionaryBytes, index, data};
+            long total = 0;
+            for (ByteBuffer part : parts) {
+                total += part.remaining();
+            }
+            long written = 0;
+            while (written < total) {
+                written += channel.write(parts);
+            }
+        }
+    }
+
+    public static HouseCatalogue open(Path path) throws IOException {
+        MappedByteBuffer file;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Catalogue larger than 2 GB is not supported: " + path);
+            }
+            file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        file.order(ByteOrder.BIG_ENDIAN);
+        if (file.getInt(0) != MAGIC || file.getInt(4) != VERSION) {
+            throw new IOException("Not a house catalogue: " + path);
+        }
+        int size = file.getInt(8);
+        int dictionarySize = file.getInt(12);
+        int indexOffset = (int) file.getLong(16);
+        int dataOffset = (int) file.getLong(24);
+
+        StringDictionary dictionary = new StringDictionary();
+        ByteBuffer strings = file.duplicate().position(HEADER_BYTES);
+        for (int i = 0; i < dictionarySize; i++) {
+            dictionary.encode(HouseCodec.readRawString(strings));
+        }
+        return new HouseCatalogue(file, HouseCodec.withDictionary(dictionary), size, indexOffset, dataOffset);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Decodes one record into the given builder
+    public House.HouseBuilder get(int index, House.HouseBuilder into) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        int offset = dataOffset + file.getInt(indexOffset + 4 * index);
+        return codec.decode(file.duplicate().position(offset), into);
+    }
+
+    // Decodes every record in order, reusing one builder throughout
+    public void forEach(Consumer<House.HouseBuilder> action) {
+        ByteBuffer records = file.duplicate().position(dataOffset);
+        House.HouseBuilder builder = new House.HouseBuilder();
+        for (int i = 0; i < size; i++) {
+            action.accept(codec.decode(records, builder));
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package creational.builder;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Compact binary encoding of a house:
+//
+//   varint foundation, varint walls, varint roof, int rooms, byte flags
+//
+// String attributes are varint references into a StringDictionary. A streaming
+// codec writes a string inline the first time it appears (reference 0, then the
+// string) and by reference afterwards, so the decoder rebuilds the same
+// dictionary as it reads. A catalogue codec only writes references; the
+// dictionary is stored once next to the records.
+//
+// A codec is stateful: use one per stream, in the same order on both sides.
+public class HouseCodec {
+    private static final int GARAGE = 1;
+    private static final int SWIMMING_POOL = 2;
+
+    private final StringDictionary dictionary;
+    private final boolean inlineNewStrings;
+    private final String[] pending = new String[3];
+    private int pendingCount;
+
+    private HouseCodec(StringDictionary dictionary, boolean inlineNewStrings) {
+        this.dictionary = dictionary;
+        this.inlineNewStrings = inlineNewStrings;
+    }
+
+    public static HouseCodec streaming() {
+        return new HouseCodec(new StringDictionary(), true);
+    }
+
+    static HouseCodec withDictionary(StringDictionary dictionary) {
+        return new HouseCodec(dictionary, false);
+    }
+
+    StringDictionary dictionary() {
+        return dictionary;
+    }
+
+    public void encode(House house, ByteBuffer out) {
+        encode(house.getFoundation(), house.getWalls(), house.getRoof(), house.getNumberOfRooms(),
+                house.hasGarage(), house.hasSwimmingPool(), out);
+    }
+
+    public void encode(House.HouseBuilder builder, ByteBuffer out) {
+        encode(builder.getFoundation(), builder.getWalls(), builder.getRoof(), builder.getNumberOfRooms(),
+                builder.hasGarage(), builder.hasSwimmingPool(), out);
+    }
+
+    // Reads the next record into the given builder and returns it, so one builder
+    // can be reused for a whole stream. If the buffer ends mid-record, nothing is
+    // consumed: the position, the dictionary and the builder are left as they
+    // were, so the caller can compact, refill and retry.
+    public House.HouseBuilder decode(ByteBuffer in, House.HouseBuilder into) {
+        int start = in.position();
+        pendingCount = 0;
+        String foundation;
+        String walls;
+        String roof;
+        int rooms;
+        int flags;
+        try {
+            foundation = readString(in);
+            walls = readString(in);
+            roof = readString(in);
+            rooms = in.getInt();
+            flags = in.get();
+        } catch (BufferUnderflowException e) {
+            in.position(start);
+            for (int i = 0; i < pendingCount; i++) {
+                pending[i] = null;
+            }
+            throw e;
+        }
+        for (int i = 0; i < pendingCount; i++) {
+            dictionary.encode(pending[i]);
+            pending[i] = null;
+        }
+        into.setFoundation(foundation);
+        into.setWalls(walls);
+        into.setRoof(roof);
+        into.setNumberOfRooms(rooms);
+        into.setGarage((flags & GARAGE) != 0);
+        into.setSwimmingPool((flags & SWIMMING_POOL) != 0);
+        return into;
+    }
+
+    // Either the whole record is written or, if the buffer is too small, nothing
+    // is: the position and the dictionary are left as they were
+    private void encode(String foundation, String walls, String roof, int rooms,
+                        boolean hasGarage, boolean hasSwimmingPool, ByteBuffer out) {
+        int start = out.position();
+        pendingCount = 0;
+        try {
+            writeString(foundation, out);
+            writeString(walls, out);
+            writeString(roof, out);
+            out.putInt(rooms);
+            out.put((byte) ((hasGarage ? GARAGE : 0) | (hasSwimmingPool ? SWIMMING_POOL : 0)));
+        } catch (BufferOverflowException e) {
+            out.position(start);
+            throw e;
+        }
+        for (int i = 0; i < pendingCount; i++) {
+            dictionary.encode(pending[i]);
+            pending[i] = null;
+        }
+    }
+
+    private void writeString(String value, ByteBuffer out) {
+        int code = dictionary.codeOf(value);
+        if (!inlineNewStrings) {
+            writeVarint(code >= 0 ? code : dictionary.encode(value), out);
+        } else if (code >= 0) {
+            writeVarint(code + 1, out);
+        } else {
+            writeVarint(0, out);
+            writeRawString(value, out);
+            pending[pendingCount++] = value;
+        }
+    }
+
+    private String readString(ByteBuffer in) {
+        int reference = readVarint(in);
+        if (!inlineNewStrings) {
+            return dictionary.decode(reference);
+        }
+        if (reference == 0) {
+            // Added to the dictionary once the whole record has been read
+            String value = readRawString(in);
+            pending[pendingCount++] = value;
+            return value;
+        }
+        return dictionary.decode(reference - 1);
+    }
+
+    // Length + 1 as a varint (0 means null), then UTF-8 bytes
+    static void writeRawString(String value, ByteBuffer out) {
+        if (value == null) {
+            writeVarint(0, out);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(bytes.length + 1, out);
+        out.put(bytes);
+    }
+
+    static String readRawString(ByteBuffer in) {
+        int length = readVarint(in) - 1;
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Unsigned LEB128: 7 bits per byte, high bit set on every byte but the last
+    static void writeVarint(int value, ByteBuffer out) {
+        while ((value & ~0x7F) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    static int readVarint(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed varint");
+    }
+}
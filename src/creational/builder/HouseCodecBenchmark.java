@@ -0,0 +1,87 @@
+package creational.builder;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Measures HouseCodec encode/decode speed and HouseCatalogue open and scan time.
+// Usage: HouseCodecBenchmark [houses]
+public class HouseCodecBenchmark {
+    private static final String[] FOUNDATIONS = {"Concrete", "Stone", "Slab", "Pier"};
+    private static final String[] WALLS = {"Brick", "Wood", "Glass", "Stucco", "Stone"};
+    private static final String[] ROOFS = {"Shingle", "Tile", "Metal"};
+
+    public static void main(String[] args) throws Exception {
+        int houses = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        List<House> catalogue = new ArrayList<>(houses);
+        Random random = new Random(5);
+        for (int i = 0; i < houses; i++) {
+            catalogue.add(new House.HouseBuilder()
+                    .setFoundation(FOUNDATIONS[random.nextInt(FOUNDATIONS.length)])
+                    .setWalls(WALLS[random.nextInt(WALLS.length)])
+                    .setRoof(ROOFS[random.nextInt(ROOFS.length)])
+                    .setNumberOfRooms(1 + random.nextInt(8))
+                    .setGarage(random.nextBoolean())
+                    .setSwimmingPool(random.nextInt(10) == 0)
+                    .build());
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(houses * 16 + 1024);
+        for (int round = 0; round < 3; round++) {
+            buffer.clear();
+            HouseCodec encoder = HouseCodec.streaming();
+            long start = System.nanoTime();
+            for (House house : catalogue) {
+                encoder.encode(house, buffer);
+            }
+            long encodeNanos = System.nanoTime() - start;
+            buffer.flip();
+            int bytes = buffer.remaining();
+
+            HouseCodec decoder = HouseCodec.streaming();
+            House.HouseBuilder builder = new House.HouseBuilder();
+            long rooms = 0;
+            start = System.nanoTime();
+            while (buffer.hasRemaining()) {
+                rooms += decoder.decode(buffer, builder).getNumberOfRooms();
+            }
+            long decodeNanos = System.nanoTime() - start;
+
+            System.out.printf("Stream: %.2f bytes/house, encode %.0f MB/s, decode %.0f MB/s (rooms %d)%n",
+                    bytes / (double) houses, bytes / 1e6 / (encodeNanos / 1e9), bytes / 1e6 / (decodeNanos / 1e9), rooms);
+        }
+
+        Path file = Files.createTempFile("houses", ".catalogue");
+        try {
+            long start = System.nanoTime();
+            HouseCatalogue.write(file, catalogue);
+            long writeNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            HouseCatalogue opened = HouseCatalogue.open(file);
+            long openNanos = System.nanoTime() - start;
+
+            House.HouseBuilder probe = opened.get(houses / 2, new House.HouseBuilder());
+            if (!probe.build().toString().equals(catalogue.get(houses / 2).toString())) {
+                throw new IllegalStateException("Catalogue round trip failed");
+            }
+
+            long[] garages = new long[1];
+            start = System.nanoTime();
+            opened.forEach(builder -> {
+                if (builder.hasGarage()) {
+                    garages[0]++;
+                }
+            });
+            long scanNanos = System.nanoTime() - start;
+
+            System.out.printf("Catalogue: %d houses, %.1f MB, write %.0f ms, open %.3f ms, full scan %.0f ms (%d garages)%n",
+                    opened.size(), Files.size(file) / 1e6, writeNanos / 1e6, openNanos / 1e6, scanNanos / 1e6, garages[0]);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package creational.builder;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+// Struct-of-arrays store for very large numbers of houses. Each attribute is a
+// column: the string attributes hold dictionary codes, the rooms an int, and the
+// two flags one bit per house. Filters run over whole columns and produce a
+// Selection bitmap; House objects are only created when one is asked for.
+public class HouseStore {
+    private final StringDictionary dictionary = new StringDictionary();
+    private short[] foundations;
+    private short[] walls;
+    private short[] roofs;
+    private int[] rooms;
+    private long[] garages;
+    private long[] swimmingPools;
+    private int size;
+
+    public HouseStore() {
+        this(1024);
+    }
+
+    public HouseStore(int initialCapacity) {
+        int capacity = Math.max(64, initialCapacity);
+        foundations = new short[capacity];
+        walls = new short[capacity];
+        roofs = new short[capacity];
+        rooms = new int[capacity];
+        garages = new long[words(capacity)];
+        swimmingPools = new long[words(capacity)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Called by HouseBuilder.buildInto
+    int append(String foundation, String wall, String roof, int numberOfRooms, boolean hasGarage, boolean hasSwimmingPool) {
+        // Encode first: a full dictionary throws, and must not leave a half-written row behind
+        short foundationCode = (short) dictionary.encode(foundation);
+        short wallCode = (short) dictionary.encode(wall);
+        short roofCode = (short) dictionary.encode(roof);
+        if (size == rooms.length) {
+            grow();
+        }
+        int index = size;
+        foundations[index] = foundationCode;
+        walls[index] = wallCode;
+        roofs[index] = roofCode;
+        rooms[index] = numberOfRooms;
+        if (hasGarage) {
+            garages[index >>> 6] |= 1L << index;
+        }
+        if (hasSwimmingPool) {
+            swimmingPools[index >>> 6] |= 1L << index;
+        }
+        size = index + 1;
+        return index;
+    }
+
+    // Creates a House for one entry; nothing is kept, so call it only for results
+    public House get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return new House.HouseBuilder()
+                .setFoundation(dictionary.decode(foundations[index] & 0xFFFF))
+                .setWalls(dictionary.decode(walls[index] & 0xFFFF))
+                .setRoof(dictionary.decode(roofs[index] & 0xFFFF))
+                .setNumberOfRooms(rooms[index])
+                .setGarage(bit(garages, index))
+                .setSwimmingPool(bit(swimmingPools, index))
+                .build();
+    }
+
+    public Selection all() {
+        long[] result = new long[words(size)];
+        Arrays.fill(result, -1L);
+        if ((size & 63) != 0) {
+            result[result.length - 1] = (1L << size) - 1;
+        }
+        return new Selection(result);
+    }
+
+    public Selection withGarage() {
+        return new Selection(Arrays.copyOf(garages, words(size)));
+    }
+
+    public Selection withSwimmingPool() {
+        return new Selection(Arrays.copyOf(swimmingPools, words(size)));
+    }
+
+    // Builds the bitmap 64 houses at a time; the loop body has no branches
+    public Selection roomsAtLeast(int min) {
+        long[] result = new long[words(size)];
+        for (int word = 0; word < result.length; word++) {
+            int base = word << 6;
+            int end = Math.min(base + 64, size);
+            long bits = 0;
+            for (int i = base; i < end; i++) {
+                bits |= (rooms[i] >= min ? 1L : 0L) << (i - base);
+            }
+            result[word] = bits;
+        }
+        return new Selection(result);
+    }
+
+    public Selection foundationIs(String foundation) {
+        return codeEquals(foundations, dictionary.codeOf(foundation));
+    }
+
+    public Selection wallsAre(String wall) {
+        return codeEquals(walls, dictionary.codeOf(wall));
+    }
+
+    public Selection roofIs(String roof) {
+        return codeEquals(roofs, dictionary.codeOf(roof));
+    }
+
+    // Rough heap footprint of the columns and the dictionary
+    public long estimatedBytes() {
+        long bytes = 3L * 2 * foundations.length + 4L * rooms.length + 8L * (garages.length + swimmingPools.length);
+        return bytes + 64L * dictionary.size();
+    }
+
+    private Selection codeEquals(short[] column, int code) {
+        long[] result = new long[words(size)];
+        if (code < 0) {
+            return new Selection(result); // value never stored, nothing matches
+        }
+        short wanted = (short) code;
+        for (int word = 0; word < result.length; word++) {
+            int base = word << 6;
+            int end = Math.min(base + 64, size);
+            long bits = 0;
+            for (int i = base; i < end; i++) {
+                bits |= (column[i] == wanted ? 1L : 0L) << (i - base);
+            }
+            result[word] = bits;
+        }
+        return new Selection(result);
+    }
+
+    private void grow() {
+        int capacity = rooms.length * 2;
+        foundations = Arrays.copyOf(foundations, capacity);
+        walls = Arrays.copyOf(walls, capacity);
+        roofs = Arrays.copyOf(roofs, capacity);
+        rooms = Arrays.copyOf(rooms, capacity);
+        garages = Arrays.copyOf(garages, words(capacity));
+        swimmingPools = Arrays.copyOf(swimmingPools, words(capacity));
+    }
+
+    private static boolean bit(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private static int words(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    // Result of a filter: one bit per house in the store
+    public final class Selection {
+        private final long[] words;
+
+        private Selection(long[] words) {
+            this.words = words;
+        }
+
+        // A selection taken before more houses were added simply does not contain them
+        public Selection and(Selection other) {
+            long[] result = new long[Math.max(words.length, checkSameStore(other).words.length)];
+            for (int i = 0; i < Math.min(words.length, other.words.length); i++) {
+                result[i] = words[i] & other.words[i];
+            }
+            return new Selection(result);
+        }
+
+        public Selection or(Selection other) {
+            long[] result = new long[Math.max(words.length, checkSameStore(other).words.length)];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = (i < words.length ? words[i] : 0) | (i < other.words.length ? other.words[i] : 0);
+            }
+            return new Selection(result);
+        }
+
+        private Selection checkSameStore(Selection other) {
+            if (other.store() != HouseStore.this) {
+                throw new IllegalArgumentException("Selections from different stores cannot be combined");
+            }
+            return other;
+        }
+
+        private HouseStore store() {
+            return HouseStore.this;
+        }
+
+        public int count() {
+            int count = 0;
+            for (long word : words) {
+                count += Long.bitCount(word);
+            }
+            return count;
+        }
+
+        public void forEachIndex(IntConsumer action) {
+            for (int word = 0; word < words.length; word++) {
+                long bits = words[word];
+                while (bits != 0) {
+                    action.accept((word << 6) + Long.numberOfTrailingZeros(bits));
+                    bits &= bits - 1;
+                }
+            }
+        }
+
+        public void forEachHouse(Consumer<House> action) {
+            forEachIndex(index -> action.accept(get(index)));
+        }
+    }
+
+    public static void main(String[] args) {
+        HouseStore store = new HouseStore();
+        String[] foundations = {"Concrete", "Stone"};
+        String[] walls = {"Brick", "Wood", "Glass"};
+        for (int i = 0; i < 10; i++) {
+            new House.HouseBuilder()
+                    .setFoundation(foundations[i % foundations.length])
+                    .setWalls(walls[i % walls.length])
+                    .setRoof("Shingle")
+                    .setNumberOfRooms(2 + i % 4)
+                    .setGarage(i % 3 == 0)
+                    .setSwimmingPool(i % 5 == 0)
+                    .buildInto(store);
+        }
+
+        Selection bigWithGarage = store.roomsAtLeast(4).and(store.withGarage());
+        System.out.println(bigWithGarage.count() + " of " + store.size() + " houses have 4+ rooms and a garage:");
+        bigWithGarage.forEachHouse(System.out::println);
+    }
+}
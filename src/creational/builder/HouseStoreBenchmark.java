@@ -0,0 +1,80 @@
+package creational.builder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Builds the same random catalogue as a List<House> and as a HouseStore, then
+// reports heap bytes per house and throughput of "rooms >= 4 and hasGarage".
+// Usage: HouseStoreBenchmark [houses]
+public class HouseStoreBenchmark {
+    private static final String[] FOUNDATIONS = {"Concrete", "Stone", "Slab", "Pier"};
+    private static final String[] WALLS = {"Brick", "Wood", "Glass", "Stucco", "Stone"};
+    private static final String[] ROOFS = {"Shingle", "Tile", "Metal"};
+
+    public static void main(String[] args) throws InterruptedException {
+        int houses = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+
+        long baseline = usedHeap();
+        List<House> list = new ArrayList<>(houses);
+        fill(houses, builder -> list.add(builder.build()));
+        long listBytes = usedHeap() - baseline;
+
+        baseline = usedHeap();
+        HouseStore store = new HouseStore(houses);
+        fill(houses, builder -> builder.buildInto(store));
+        long storeBytes = usedHeap() - baseline;
+
+        System.out.println("Houses: " + houses);
+        System.out.printf("List<House>: %6.1f bytes/house%n", listBytes / (double) houses);
+        System.out.printf("HouseStore:  %6.1f bytes/house%n", storeBytes / (double) houses);
+
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            int listMatches = 0;
+            for (House house : list) {
+                if (house.getNumberOfRooms() >= 4 && house.hasGarage()) {
+                    listMatches++;
+                }
+            }
+            long listNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int storeMatches = store.roomsAtLeast(4).and(store.withGarage()).count();
+            long storeNanos = System.nanoTime() - start;
+
+            if (listMatches != storeMatches) {
+                throw new IllegalStateException("Mismatch: " + listMatches + " vs " + storeMatches);
+            }
+            System.out.printf("rooms >= 4 and hasGarage (%d matches): list %.0f M houses/s, store %.0f M houses/s%n",
+                    storeMatches, houses / (listNanos / 1e3), houses / (storeNanos / 1e3));
+        }
+    }
+
+    private interface BuilderSink {
+        void accept(House.HouseBuilder builder);
+    }
+
+    // Same seed every time, so both representations hold identical houses
+    private static void fill(int houses, BuilderSink sink) {
+        Random random = new Random(3);
+        for (int i = 0; i < houses; i++) {
+            sink.accept(new House.HouseBuilder()
+                    .setFoundation(FOUNDATIONS[random.nextInt(FOUNDATIONS.length)])
+                    .setWalls(WALLS[random.nextInt(WALLS.length)])
+                    .setRoof(ROOFS[random.nextInt(ROOFS.length)])
+                    .setNumberOfRooms(1 + random.nextInt(8))
+                    .setGarage(random.nextBoolean())
+                    .setSwimmingPool(random.nextInt(10) == 0));
+        }
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
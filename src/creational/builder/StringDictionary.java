@@ -0,0 +1,42 @@
+package creational.builder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Maps each distinct string to a small int code and back. Codes are assigned in
+// order of first appearance; null is stored like any other value.
+class StringDictionary {
+    static final int MAX_CODES = 1 << 16;
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    int encode(String value) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            if (values.size() == MAX_CODES) {
+                throw new IllegalStateException("More than " + MAX_CODES + " distinct values");
+            }
+            code = values.size();
+            codes.put(value, code);
+            values.add(value);
+        }
+        return code;
+    }
+
+    // Returns the code of a value, or -1 if it has never been encoded
+    int codeOf(String value) {
+        Integer code = codes.get(value);
+        return code == null ? -1 : code;
+    }
+
+    String decode(int code) {
+        return values.get(code);
+    }
+
+    int size() {
+        return values.size();
+    }
+}
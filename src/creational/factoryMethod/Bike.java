@@ -1,8 +1,26 @@
 package creational.factoryMethod;
 
 class Bike implements Vehicle {
+    private static final int MAX_WEIGHT_KG = 5;
+    private static final int MAX_DISTANCE_KM = 10;
+
     @Override
     public void deliver() {
         System.out.println("Delivering by bike.");
     }
+
+    static boolean fits(DeliveryOrder order) {
+        return order.getWeightKg() <= MAX_WEIGHT_KG && order.getDistanceKm() <= MAX_DISTANCE_KM;
+    }
+
+    @Override
+    public boolean canCarry(DeliveryOrder order) {
+        return fits(order);
+    }
+
+    @Override
+    public void deliver(DeliveryOrder order) {
+        // Slower per km than a car, but it only takes short trips
+        Route.drive(order.getDistanceKm() * 2);
+    }
 }
@@ -5,4 +5,14 @@ class Car implements Vehicle {
     public void deliver() {
         System.out.println("Delivering by car.");
     }
-}
\ No newline at end of file
+
+    @Override
+    public boolean canCarry(DeliveryOrder order) {
+        return true;
+    }
+
+    @Override
+    public void deliver(DeliveryOrder order) {
+        Route.drive(order.getDistanceKm());
+    }
+}
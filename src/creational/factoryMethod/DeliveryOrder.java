@@ -0,0 +1,41 @@
+package creational.factoryMethod;
+
+public class DeliveryOrder {
+    // Lower value means more urgent
+    public static final int EXPRESS = 0;
+    public static final int STANDARD = 1;
+    public static final int ECONOMY = 2;
+    public static final int PRIORITY_LEVELS = 3;
+
+    private final long id;
+    private final int priority;
+    private final int weightKg;
+    private final int distanceKm;
+    long enqueuedNanos;
+
+    public DeliveryOrder(long id, int priority, int weightKg, int distanceKm) {
+        if (priority < EXPRESS || priority > ECONOMY) {
+            throw new IllegalArgumentException("Invalid priority: " + priority);
+        }
+        this.id = id;
+        this.priority = priority;
+        this.weightKg = weightKg;
+        this.distanceKm = distanceKm;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public int getWeightKg() {
+        return weightKg;
+    }
+
+    public int getDistanceKm() {
+        return distanceKm;
+    }
+}
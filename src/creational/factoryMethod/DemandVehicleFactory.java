@@ -0,0 +1,18 @@
+package creational.factoryMethod;
+
+// Adds whichever vehicle suits the order that is waiting: a bike for small,
+// nearby packages and a car for everything else
+class DemandVehicleFactory extends VehicleFactory {
+    private final VehicleFactory carFactory = new CarFactory();
+    private final VehicleFactory bikeFactory = new BikeFactory();
+
+    @Override
+    public Vehicle createVehicle() {
+        return carFactory.createVehicle();
+    }
+
+    @Override
+    public Vehicle createVehicleFor(DeliveryOrder order) {
+        return Bike.fits(order) ? bikeFactory.createVehicle() : carFactory.createVehicle();
+    }
+}
@@ -0,0 +1,65 @@
+package creational.factoryMethod;
+
+import java.util.Random;
+
+// Pushes a batch of random orders through the DispatchEngine and reports
+// throughput, queue wait percentiles and vehicle utilisation.
+// Usage: DispatchBenchmark [orders] [workers] [maxVehicles]
+public class DispatchBenchmark {
+    public static void main(String[] args) throws Exception {
+        int orders = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int workers = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int maxVehicles = args.length > 2 ? Integer.parseInt(args[2]) : workers * 4;
+
+        DispatchEngine engine = new DispatchEngine(new DemandVehicleFactory(), workers, 1, maxVehicles);
+        Random random = new Random(1);
+        long start = System.nanoTime();
+        for (int i = 0; i < orders; i++) {
+            int roll = random.nextInt(10);
+            int priority = roll == 0 ? DeliveryOrder.EXPRESS : roll < 7 ? DeliveryOrder.STANDARD : DeliveryOrder.ECONOMY;
+            engine.submit(new DeliveryOrder(i, priority, 1 + random.nextInt(30), 1 + random.nextInt(40)));
+        }
+        while (engine.deliveredCount() < orders) {
+            Thread.sleep(10);
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        engine.close();
+
+        int cars = 0;
+        int bikes = 0;
+        long busyNanos = 0;
+        for (VehiclePool.PooledVehicle vehicle : engine.pool().fleet()) {
+            if (vehicle.vehicle instanceof Car) {
+                cars++;
+            } else if (vehicle.vehicle instanceof Bike) {
+                bikes++;
+            }
+            busyNanos += vehicle.busyNanos;
+        }
+        int fleetSize = engine.pool().fleet().size();
+
+        System.out.println("Orders: " + orders + ", workers: " + workers + ", fleet: " + cars + " cars + " + bikes + " bikes");
+        System.out.printf("Throughput: %.0f orders/sec%n", orders / (elapsedNanos / 1e9));
+        long[] histogram = engine.waitHistogram();
+        System.out.println("Queue wait: p50 < " + percentileMicros(histogram, 0.50) + " us, p99 < "
+                + percentileMicros(histogram, 0.99) + " us, max < " + percentileMicros(histogram, 1.0) + " us");
+        System.out.printf("Vehicle utilisation: %.1f%%%n", 100.0 * busyNanos / ((double) fleetSize * elapsedNanos));
+    }
+
+    // Upper bound of the power-of-two bucket that holds the given fraction of samples
+    private static long percentileMicros(long[] histogram, double fraction) {
+        long total = 0;
+        for (long count : histogram) {
+            total += count;
+        }
+        long target = (long) Math.ceil(total * fraction);
+        long seen = 0;
+        for (int i = 0; i < histogram.length; i++) {
+            seen += histogram[i];
+            if (seen >= target && seen > 0) {
+                return 1L << (i + 1);
+            }
+        }
+        return 1L << histogram.length;
+    }
+}
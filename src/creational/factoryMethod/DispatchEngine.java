@@ -0,0 +1,166 @@
+package creational.factoryMethod;
+
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Delivers orders in parallel with a pool of reusable vehicles.
+//
+// Each worker owns one deque per priority level. New orders are spread over the
+// workers; a worker takes the most urgent order from its own deques (oldest
+// first) and, when it has nothing left, steals from the back of another
+// worker's deques. This keeps all cores busy without a shared queue.
+public class DispatchEngine implements AutoCloseable {
+    // Queue wait histogram with power-of-two microsecond buckets
+    static final int WAIT_BUCKETS = 40;
+
+    private final Worker[] workers;
+    private final VehiclePool pool;
+    private final AtomicLong submitted = new AtomicLong();
+    private final LongAdder delivered = new LongAdder();
+    private volatile boolean running = true;
+
+    public DispatchEngine(VehicleFactory factory, int workerCount, int initialVehicles, int maxVehicles) {
+        this.pool = new VehiclePool(factory, initialVehicles, maxVehicles);
+        this.workers = new Worker[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            workers[i] = new Worker(i);
+        }
+        for (Worker worker : workers) {
+            worker.thread.start();
+        }
+    }
+
+    // Throws IllegalArgumentException for an order that no vehicle in the fleet,
+    // and no vehicle the factory would add, can ever carry
+    public void submit(DeliveryOrder order) {
+        if (!running) {
+            throw new IllegalStateException("DispatchEngine is closed");
+        }
+        if (!pool.canEverCarry(order)) {
+            throw new IllegalArgumentException("No vehicle can carry order " + order.getId() + " ("
+                    + order.getWeightKg() + " kg, " + order.getDistanceKm() + " km)");
+        }
+        order.enqueuedNanos = System.nanoTime();
+        Worker target = workers[(int) (submitted.getAndIncrement() % workers.length)];
+        target.queues[order.getPriority()].offerLast(order);
+        LockSupport.unpark(target.thread);
+    }
+
+    public long deliveredCount() {
+        return delivered.sum();
+    }
+
+    VehiclePool pool() {
+        return pool;
+    }
+
+    // Merged queue wait histogram of all workers
+    long[] waitHistogram() {
+        long[] merged = new long[WAIT_BUCKETS];
+        for (Worker worker : workers) {
+            for (int i = 0; i < WAIT_BUCKETS; i++) {
+                merged[i] += worker.waitMicros[i];
+            }
+        }
+        return merged;
+    }
+
+    // Delivers the orders already submitted, then stops the workers
+    @Override
+    public void close() {
+        running = false;
+        try {
+            for (Worker worker : workers) {
+                LockSupport.unpark(worker.thread);
+                worker.thread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private final class Worker implements Runnable {
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        final ConcurrentLinkedDeque<DeliveryOrder>[] queues = new ConcurrentLinkedDeque[DeliveryOrder.PRIORITY_LEVELS];
+        final long[] waitMicros = new long[WAIT_BUCKETS];
+        final Thread thread;
+
+        Worker(int index) {
+            for (int i = 0; i < queues.length; i++) {
+                queues[i] = new ConcurrentLinkedDeque<>();
+            }
+            this.thread = new Thread(this, "dispatch-worker-" + index);
+        }
+
+        @Override
+        public void run() {
+            int idleSpins = 0;
+            while (true) {
+                DeliveryOrder order = next();
+                if (order == null) {
+                    if (!running) {
+                        return; // closed and nothing left to steal either
+                    }
+                    // Back off gradually; submit() unparks us when work arrives
+                    if (++idleSpins < 64) {
+                        Thread.onSpinWait();
+                    } else {
+                        LockSupport.parkNanos(100_000);
+                    }
+                    continue;
+                }
+                idleSpins = 0;
+                VehiclePool.PooledVehicle vehicle = pool.acquire(order);
+                if (vehicle == null) {
+                    // Every suitable vehicle is out on a delivery (submit() made sure one
+                    // exists); retry this order first
+                    queues[order.getPriority()].offerFirst(order);
+                    Thread.yield();
+                    continue;
+                }
+                long start = System.nanoTime();
+                recordWait(start - order.enqueuedNanos);
+                vehicle.vehicle.deliver(order);
+                vehicle.busyNanos += System.nanoTime() - start;
+                vehicle.deliveries++;
+                pool.release(vehicle);
+                delivered.increment();
+            }
+        }
+
+        private DeliveryOrder next() {
+            for (ConcurrentLinkedDeque<DeliveryOrder> queue : queues) {
+                DeliveryOrder order = queue.pollFirst();
+                if (order != null) {
+                    return order;
+                }
+            }
+            return steal();
+        }
+
+        private DeliveryOrder steal() {
+            int start = ThreadLocalRandom.current().nextInt(workers.length);
+            for (int priority = 0; priority < DeliveryOrder.PRIORITY_LEVELS; priority++) {
+                for (int i = 0; i < workers.length; i++) {
+                    Worker victim = workers[(start + i) % workers.length];
+                    if (victim != this) {
+                        DeliveryOrder order = victim.queues[priority].pollLast();
+                        if (order != null) {
+                            return order;
+                        }
+                    }
+                }
+            }
+            return null;
+        }
+
+        private void recordWait(long nanos) {
+            long micros = Math.max(1, nanos / 1_000);
+            int bucket = Math.min(WAIT_BUCKETS - 1, 63 - Long.numberOfLeadingZeros(micros));
+            waitMicros[bucket]++;
+        }
+    }
+}
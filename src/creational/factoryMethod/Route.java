@@ -0,0 +1,19 @@
+package creational.factoryMethod;
+
+// Simulated travel: burns a little CPU per km so deliveries have a real cost
+final class Route {
+    private static volatile long odometer;
+
+    private Route() {
+    }
+
+    static void drive(int km) {
+        long x = km;
+        for (int i = 0; i < km * 64; i++) {
+            x = x * 6364136223846793005L + 1442695040888963407L;
+        }
+        if (x == 42) {
+            odometer = x; // never true in practice; keeps the loop from being removed
+        }
+    }
+}
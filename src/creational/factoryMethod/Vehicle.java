@@ -2,4 +2,9 @@ package creational.factoryMethod;
 
 interface Vehicle {
     void deliver();
+
+    boolean canCarry(DeliveryOrder order);
+
+    // Delivers one order without console output; used by the DispatchEngine
+    void deliver(DeliveryOrder order);
 }
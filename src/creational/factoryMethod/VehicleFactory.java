@@ -2,4 +2,10 @@ package creational.factoryMethod;
 
 abstract class VehicleFactory {
     public abstract Vehicle createVehicle();  // Factory method
+
+    // Factory method used when a vehicle is needed for a specific order. By default
+    // the order is ignored; subclasses can pick the vehicle type from it.
+    public Vehicle createVehicleFor(DeliveryOrder order) {
+        return createVehicle();
+    }
 }
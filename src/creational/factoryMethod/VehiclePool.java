@@ -0,0 +1,137 @@
+package creational.factoryMethod;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Reusable vehicles shared by all dispatch workers. When no idle vehicle can
+// take an order and the fleet is not yet at its limit, the factory method
+// decides what kind of vehicle to add.
+class VehiclePool {
+    static final class PooledVehicle {
+        final Vehicle vehicle;
+        long busyNanos;
+        long deliveries;
+
+        PooledVehicle(Vehicle vehicle) {
+            this.vehicle = vehicle;
+        }
+    }
+
+    // How many idle vehicles an order looks at before giving up on reuse
+    private static final int SCAN_LIMIT = 8;
+
+    private final VehicleFactory factory;
+    private final int maxVehicles;
+    private final ConcurrentLinkedDeque<PooledVehicle> idle = new ConcurrentLinkedDeque<>();
+    private final List<PooledVehicle> fleet = new CopyOnWriteArrayList<>();
+    private final AtomicInteger created = new AtomicInteger();
+
+    // Starts with initialVehicles general-purpose vehicles from createVehicle();
+    // orders none of them can carry rely on createVehicleFor(order)
+    VehiclePool(VehicleFactory factory, int initialVehicles, int maxVehicles) {
+        if (initialVehicles < 1 || initialVehicles > maxVehicles) {
+            throw new IllegalArgumentException("Need 1 <= initialVehicles <= maxVehicles");
+        }
+        this.factory = factory;
+        this.maxVehicles = maxVehicles;
+        for (int i = 0; i < initialVehicles; i++) {
+            PooledVehicle vehicle = new PooledVehicle(factory.createVehicle());
+            fleet.add(vehicle);
+            idle.offerLast(vehicle);
+        }
+        created.set(initialVehicles);
+    }
+
+    // Returns a vehicle able to carry the order, or null if none is free right now
+    PooledVehicle acquire(DeliveryOrder order) {
+        List<PooledVehicle> unsuitable = null;
+        PooledVehicle found = null;
+        for (int i = 0; i < SCAN_LIMIT; i++) {
+            PooledVehicle candidate = idle.pollFirst();
+            if (candidate == null) {
+                break;
+            }
+            if (candidate.vehicle.canCarry(order)) {
+                found = candidate;
+                break;
+            }
+            if (unsuitable == null) {
+                unsuitable = new ArrayList<>(SCAN_LIMIT);
+            }
+            unsuitable.add(candidate);
+        }
+        if (unsuitable != null) {
+            for (PooledVehicle vehicle : unsuitable) {
+                idle.offerLast(vehicle);
+            }
+        }
+        if (found == null) {
+            found = grow(order);
+        }
+        return found;
+    }
+
+    // True if a vehicle in the fleet, or one the factory adds for this order, can
+    // carry it. An order that fails this check would wait forever.
+    boolean canEverCarry(DeliveryOrder order) {
+        if (anyCarries(order)) {
+            return true;
+        }
+        PooledVehicle added = grow(order);
+        if (added != null) {
+            idle.offerLast(added);
+            return true;
+        }
+        // Vehicles reserved by other threads may still be on their way into the fleet
+        while (fleet.size() < created.get()) {
+            Thread.onSpinWait();
+        }
+        return anyCarries(order);
+    }
+
+    private boolean anyCarries(DeliveryOrder order) {
+        for (PooledVehicle vehicle : fleet) {
+            if (vehicle.vehicle.canCarry(order)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void release(PooledVehicle vehicle) {
+        idle.offerFirst(vehicle); // most recently used first keeps the working set small
+    }
+
+    List<PooledVehicle> fleet() {
+        return fleet;
+    }
+
+    private PooledVehicle grow(DeliveryOrder order) {
+        int current;
+        do {
+            current = created.get();
+            if (current >= maxVehicles) {
+                return null;
+            }
+        } while (!created.compareAndSet(current, current + 1));
+        Vehicle vehicle;
+        try {
+            vehicle = factory.createVehicleFor(order);
+        } catch (RuntimeException | Error e) {
+            // Otherwise created stays ahead of the fleet and canEverCarry waits forever
+            created.decrementAndGet();
+            throw e;
+        }
+        if (!vehicle.canCarry(order)) {
+            // The factory's choice cannot take this order either; give the slot back
+            created.decrementAndGet();
+            return null;
+        }
+        PooledVehicle pooled = new PooledVehicle(vehicle);
+        fleet.add(pooled);
+        return pooled;
+    }
+}
@@ -0,0 +1,39 @@
+package creational.singleton;
+
+public class HolderSingleton {
+    public static int count = 0;
+
+    private HolderSingleton() {
+        count++;
+    }
+
+    // The JVM initializes Holder (and so INSTANCE) on first access only, and class
+    // initialization is already thread-safe, so getInstance() needs no lock at all
+    private static class Holder {
+        private static final HolderSingleton INSTANCE = new HolderSingleton();
+    }
+
+    public static HolderSingleton getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    public void showMessage() {
+        System.out.println("Hello from Holder Singleton! Count: " + count);
+    }
+
+    public static void main(String[] args) {
+        // Create multiple threads that try to get the Singleton instance
+        Runnable task = () -> {
+            HolderSingleton singleton = HolderSingleton.getInstance();
+            singleton.showMessage();
+        };
+
+        // Start multiple threads
+        Thread thread1 = new Thread(task);
+        Thread thread2 = new Thread(task);
+        Thread thread3 = new Thread(task);
+        thread1.start();
+        thread2.start();
+        thread3.start();
+    }
+}
@@ -0,0 +1,218 @@
+package creational.singleton;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+// One lazily created instance per key: a singleton per tenant, region, config...
+//
+// The map only ever holds cheap Entry objects; the instance itself is created
+// inside the entry under the entry's own lock, so a slow constructor blocks
+// callers of that key only. Once an instance exists, get() is a map lookup plus
+// an acquire read, with no locking at all.
+public class Multiton<K, V> {
+    private enum Mode { STRONG, WEAK_VALUES, BOUNDED }
+
+    private final ConcurrentHashMap<K, Entry<K, V>> entries = new ConcurrentHashMap<>();
+    private final Function<? super K, ? extends V> factory;
+    private final Mode mode;
+    private final int maxSize;
+
+    // BOUNDED: keys in insertion order, evicted oldest first
+    private final ConcurrentLinkedQueue<Entry<K, V>> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    // WEAK_VALUES: collected instances show up here so their entries can be dropped
+    private final ReferenceQueue<V> collected = new ReferenceQueue<>();
+
+    private Multiton(Function<? super K, ? extends V> factory, Mode mode, int maxSize) {
+        this.factory = factory;
+        this.mode = mode;
+        this.maxSize = maxSize;
+    }
+
+    // Instances live as long as the registry
+    public static <K, V> Multiton<K, V> create(Function<? super K, ? extends V> factory) {
+        return new Multiton<>(factory, Mode.STRONG, Integer.MAX_VALUE);
+    }
+
+    // Instances may be garbage collected once nobody else references them;
+    // the next get() for that key creates a new one
+    public static <K, V> Multiton<K, V> withWeakValues(Function<? super K, ? extends V> factory) {
+        return new Multiton<>(factory, Mode.WEAK_VALUES, Integer.MAX_VALUE);
+    }
+
+    // Keeps at most maxSize keys, evicting the oldest first
+    public static <K, V> Multiton<K, V> bounded(Function<? super K, ? extends V> factory, int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+        }
+        return new Multiton<>(factory, Mode.BOUNDED, maxSize);
+    }
+
+    public V get(K key) {
+        Entry<K, V> entry = entries.get(key);
+        if (entry != null) {
+            V instance = entry.peek();
+            if (instance != null) {
+                return instance;
+            }
+        }
+        return getSlow(key, entry);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private V getSlow(K key, Entry<K, V> entry) {
+        while (true) {
+            if (entry == null) {
+                Entry<K, V> fresh = new Entry<>(key);
+                entry = entries.putIfAbsent(key, fresh);
+                if (entry == null) {
+                    entry = fresh;
+                    onInserted(fresh);
+                }
+            }
+            V instance = entry.getOrCreate(this);
+            if (instance != null) {
+                return instance;
+            }
+            // The entry was evicted or its instance collected; install a new one
+            entries.remove(key, entry);
+            entry = entries.get(key);
+        }
+    }
+
+    private void onInserted(Entry<K, V> entry) {
+        if (mode == Mode.WEAK_VALUES) {
+            expungeCollected();
+        } else if (mode == Mode.BOUNDED) {
+            insertionOrder.add(entry);
+            if (size.incrementAndGet() > maxSize) {
+                evictOldest();
+            }
+        }
+    }
+
+    private void evictOldest() {
+        while (size.get() > maxSize) {
+            Entry<K, V> oldest = insertionOrder.poll();
+            if (oldest == null) {
+                return;
+            }
+            size.decrementAndGet();
+            oldest.retire();
+            entries.remove(oldest.key, oldest);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void expungeCollected() {
+        Reference<? extends V> reference;
+        while ((reference = collected.poll()) != null) {
+            Entry<K, V> entry = ((InstanceReference<K, V>) reference).entry;
+            entry.retire();
+            entries.remove(entry.key, entry);
+        }
+    }
+
+    private static final class InstanceReference<K, V> extends WeakReference<V> {
+        final Entry<K, V> entry;
+
+        InstanceReference(V instance, Entry<K, V> entry, ReferenceQueue<V> queue) {
+            super(instance, queue);
+            this.entry = entry;
+        }
+    }
+
+    private static final class Entry<K, V> {
+        private static final VarHandle VALUE;
+
+        static {
+            try {
+                VALUE = MethodHandles.lookup().findVarHandle(Entry.class, "value", Object.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        final K key;
+        // Either the instance itself or an InstanceReference to it
+        private Object value;
+        // Volatile rather than guarded by the entry lock: eviction must not wait for
+        // a constructor running under that lock
+        private volatile boolean retired;
+
+        Entry(K key) {
+            this.key = key;
+        }
+
+        @SuppressWarnings("unchecked")
+        V peek() {
+            Object current = VALUE.getAcquire(this);
+            if (current instanceof InstanceReference) {
+                return ((InstanceReference<K, V>) current).get();
+            }
+            return (V) current;
+        }
+
+        // Creates the instance at most once per entry. Returns null if the entry
+        // has been retired, in which case the caller must look up a new one.
+        synchronized V getOrCreate(Multiton<K, V> owner) {
+            V instance = peek();
+            if (instance != null) {
+                return instance;
+            }
+            if (retired || VALUE.getAcquire(this) != null) {
+                // Retired, or a weak instance that has already been collected
+                retired = true;
+                return null;
+            }
+            instance = owner.factory.apply(key);
+            if (instance == null) {
+                throw new NullPointerException("Multiton factory returned null for key " + key);
+            }
+            Object stored = owner.mode == Mode.WEAK_VALUES
+                    ? new InstanceReference<>(instance, this, owner.collected)
+                    : instance;
+            VALUE.setRelease(this, stored);
+            return instance;
+        }
+
+        // An instance being created right now is still handed to the callers waiting
+        // for it; later callers see the retired entry and install a new one
+        void retire() {
+            retired = true;
+        }
+    }
+
+    public static void main(String[] args) {
+        Multiton<String, StringBuilder> perTenant = Multiton.create(tenant -> {
+            System.out.println("Creating instance for " + tenant);
+            return new StringBuilder(tenant);
+        });
+
+        Runnable task = () -> {
+            StringBuilder acme = perTenant.get("acme");
+            StringBuilder globex = perTenant.get("globex");
+            System.out.println(Thread.currentThread().getName() + " got "
+                    + System.identityHashCode(acme) + " / " + System.identityHashCode(globex));
+        };
+
+        // Start multiple threads; each tenant's instance is created only once
+        Thread thread1 = new Thread(task);
+        Thread thread2 = new Thread(task);
+        Thread thread3 = new Thread(task);
+        thread1.start();
+        thread2.start();
+        thread3.start();
+    }
+}
@@ -0,0 +1,113 @@
+package creational.singleton;
+
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Hammers Multiton from many threads and fails if a key is ever constructed twice.
+// Usage: MultitonStressTest [threads] [keys] [rounds]
+public class MultitonStressTest {
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int keys = args.length > 1 ? Integer.parseInt(args[1]) : 1_000;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+        for (int round = 0; round < rounds; round++) {
+            checkExactlyOnce(threads, keys);
+            checkBoundedNeverOverlaps(threads, keys);
+        }
+        System.out.println("OK: " + rounds + " rounds, " + threads + " threads, " + keys + " keys");
+    }
+
+    // Every key must be constructed exactly once and every thread must see the same instance
+    private static void checkExactlyOnce(int threads, int keys) throws Exception {
+        AtomicIntegerArray constructions = new AtomicIntegerArray(keys);
+        Multiton<Integer, Object> registry = Multiton.create(key -> {
+            constructions.incrementAndGet(key);
+            Thread.yield(); // widen the window for a second construction
+            return new Object();
+        });
+        AtomicReferenceArray<Object> firstSeen = new AtomicReferenceArray<>(keys);
+        AtomicInteger mismatches = new AtomicInteger();
+
+        runConcurrently(threads, () -> {
+            for (int i = 0; i < keys; i++) {
+                int key = ThreadLocalRandom.current().nextInt(keys);
+                Object instance = registry.get(key);
+                if (!firstSeen.compareAndSet(key, null, instance) && firstSeen.get(key) != instance) {
+                    mismatches.incrementAndGet();
+                }
+            }
+            for (int key = 0; key < keys; key++) {
+                registry.get(key);
+            }
+        });
+
+        for (int key = 0; key < keys; key++) {
+            if (constructions.get(key) != 1) {
+                throw new AssertionError("key " + key + " constructed " + constructions.get(key) + " times");
+            }
+        }
+        if (mismatches.get() != 0) {
+            throw new AssertionError(mismatches.get() + " lookups returned a different instance");
+        }
+    }
+
+    // With eviction a key may be rebuilt later, but never by two threads at once
+    private static void checkBoundedNeverOverlaps(int threads, int keys) throws Exception {
+        AtomicBoolean[] constructing = new AtomicBoolean[keys];
+        for (int key = 0; key < keys; key++) {
+            constructing[key] = new AtomicBoolean();
+        }
+        AtomicInteger overlaps = new AtomicInteger();
+        Multiton<Integer, Object> registry = Multiton.bounded(key -> {
+            if (!constructing[key].compareAndSet(false, true)) {
+                overlaps.incrementAndGet();
+            }
+            Thread.yield();
+            constructing[key].set(false);
+            return new Object();
+        }, Math.max(1, keys / 4));
+
+        runConcurrently(threads, () -> {
+            for (int i = 0; i < keys * 4; i++) {
+                registry.get(ThreadLocalRandom.current().nextInt(keys));
+            }
+        });
+
+        if (overlaps.get() != 0) {
+            throw new AssertionError(overlaps.get() + " overlapping constructions in bounded mode");
+        }
+        if (registry.size() > keys / 4 + threads) {
+            throw new AssertionError("bounded registry grew to " + registry.size());
+        }
+    }
+
+    private static void runConcurrently(int threads, Runnable task) throws Exception {
+        CyclicBarrier start = new CyclicBarrier(threads);
+        Thread[] workers = new Thread[threads];
+        Throwable[] failure = new Throwable[1];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                    task.run();
+                } catch (Throwable e) {
+                    synchronized (failure) {
+                        failure[0] = e;
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        if (failure[0] != null) {
+            throw new AssertionError("worker failed", failure[0]);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package creational.singleton;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+public class VarHandleSingleton {
+    private static VarHandleSingleton instance;
+    public static int count = 0;
+
+    private static final VarHandle INSTANCE;
+
+    static {
+        try {
+            INSTANCE = MethodHandles.lookup()
+                    .findStaticVarHandle(VarHandleSingleton.class, "instance", VarHandleSingleton.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private VarHandleSingleton() {
+        count++;
+    }
+
+    // Same shape as double-checked locking, but the fast path is an acquire read
+    // instead of a full volatile read. The release write in the slow path makes
+    // sure a thread that sees the instance also sees its constructed state.
+    public static VarHandleSingleton getInstance() {
+        VarHandleSingleton result = (VarHandleSingleton) INSTANCE.getAcquire();
+        if (result == null) {
+            synchronized (VarHandleSingleton.class) {
+                result = (VarHandleSingleton) INSTANCE.getAcquire();
+                if (result == null) {
+                    result = new VarHandleSingleton();
+                    INSTANCE.setRelease(result);
+                }
+            }
+        }
+        return result;
+    }
+
+    public void showMessage() {
+        System.out.println("Hello from VarHandle Singleton! Count: " + count);
+    }
+
+    public static void main(String[] args) {
+        // Create multiple threads that try to get the Singleton instance
+        Runnable task = () -> {
+            VarHandleSingleton singleton = VarHandleSingleton.getInstance();
+            singleton.showMessage();
+        };
+
+        // Start multiple threads
+        Thread thread1 = new Thread(task);
+        Thread thread2 = new Thread(task);
+        Thread thread3 = new Thread(task);
+        thread1.start();
+        thread2.start();
+        thread3.start();
+    }
+}
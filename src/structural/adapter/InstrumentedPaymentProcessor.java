@@ -0,0 +1,29 @@
+package structural.adapter;
+
+import structural.decorator.instrumentation.CallMetrics;
+import structural.decorator.instrumentation.MetricsRegistry;
+
+// Decorator that records call count and latency of processPayment()
+public class InstrumentedPaymentProcessor implements PaymentProcessor {
+    private final PaymentProcessor paymentProcessor;
+    private final CallMetrics payments;
+
+    public InstrumentedPaymentProcessor(PaymentProcessor paymentProcessor) {
+        this(paymentProcessor, MetricsRegistry.getDefault());
+    }
+
+    public InstrumentedPaymentProcessor(PaymentProcessor paymentProcessor, MetricsRegistry registry) {
+        this.paymentProcessor = paymentProcessor;
+        this.payments = registry.metrics("PaymentProcessor.processPayment/" + paymentProcessor.getClass().getSimpleName());
+    }
+
+    @Override
+    public void processPayment(double amount) {
+        long start = payments.begin();
+        try {
+            paymentProcessor.processPayment(amount);
+        } finally {
+            payments.end(start);
+        }
+    }
+}
@@ -8,6 +8,10 @@ public class File implements FileSystemComponent {
         this.name = name;
     }
 
+    public String getName() {
+        return name;
+    }
+
     @Override
     public void showDetails() {
         System.out.println("File: " + name);
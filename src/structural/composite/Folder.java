@@ -2,28 +2,54 @@ package structural.composite;
 
 // Composite class
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class Folder implements FileSystemComponent {
     private final String name;
     private final List<FileSystemComponent> components = new ArrayList<>();
 
+    // Where TreeSnapshot last saved this folder's children; cleared when they change
+    TreeSnapshot savedIn;
+    int savedIndex;
+
     public Folder(String name) {
         this.name = name;
     }
 
+    public String getName() {
+        return name;
+    }
+
     public void addComponent(FileSystemComponent component) {
-        components.add(component);
+        components().add(component);
+        savedIn = null;
     }
 
     public void removeComponent(FileSystemComponent component) {
-        components.remove(component);
+        if (components().remove(component)) {
+            savedIn = null;
+        }
+    }
+
+    public List<FileSystemComponent> getComponents() {
+        return Collections.unmodifiableList(components());
+    }
+
+    // First direct child with the given name, or null
+    public FileSystemComponent getComponent(String name) {
+        for (FileSystemComponent component : components()) {
+            if (name.equals(nameOf(component))) {
+                return component;
+            }
+        }
+        return null;
     }
 
     @Override
     public void showDetails() {
         System.out.println("Folder: " + name);
-        for (FileSystemComponent component : components) {
+        for (FileSystemComponent component : components()) {
             component.showDetails();
         }
     }
@@ -31,8 +57,30 @@ public class Folder implements FileSystemComponent {
     @Override
     public void delete() {
         System.out.println("Deleting folder: " + name);
-        for (FileSystemComponent component : components) {
+        for (FileSystemComponent component : components()) {
             component.delete();
         }
     }
+
+    // Every access to the children goes through here, so a folder restored from
+    // a snapshot can load them on first use
+    List<FileSystemComponent> components() {
+        return components;
+    }
+
+    // False for a restored folder whose children have not been loaded yet
+    boolean isLoaded() {
+        return true;
+    }
+
+    static String nameOf(FileSystemComponent component) {
+        if (component instanceof Folder) {
+            return ((Folder) component).getName();
+        } else if (component instanceof File) {
+            return ((File) component).getName();
+        } else if (component instanceof Shortcut) {
+            return ((Shortcut) component).getName();
+        }
+        return null;
+    }
 }
@@ -0,0 +1,43 @@
+package structural.composite;
+
+import structural.decorator.instrumentation.CallMetrics;
+import structural.decorator.instrumentation.MetricsRegistry;
+
+// Decorator that records call count and latency of every component operation.
+// Wrapping a Folder measures the whole subtree it walks.
+public class InstrumentedFileSystemComponent implements FileSystemComponent {
+    private final FileSystemComponent component;
+    private final CallMetrics showDetailsCalls;
+    private final CallMetrics deleteCalls;
+
+    public InstrumentedFileSystemComponent(FileSystemComponent component) {
+        this(component, MetricsRegistry.getDefault());
+    }
+
+    public InstrumentedFileSystemComponent(FileSystemComponent component, MetricsRegistry registry) {
+        this.component = component;
+        String type = component.getClass().getSimpleName();
+        this.showDetailsCalls = registry.metrics("FileSystemComponent.showDetails/" + type);
+        this.deleteCalls = registry.metrics("FileSystemComponent.delete/" + type);
+    }
+
+    @Override
+    public void showDetails() {
+        long start = showDetailsCalls.begin();
+        try {
+            component.showDetails();
+        } finally {
+            showDetailsCalls.end(start);
+        }
+    }
+
+    @Override
+    public void delete() {
+        long start = deleteCalls.begin();
+        try {
+            component.delete();
+        } finally {
+            deleteCalls.end(start);
+        }
+    }
+}
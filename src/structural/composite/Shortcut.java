@@ -7,6 +7,10 @@ public class Shortcut implements FileSystemComponent {
         this.name = name;
     }
 
+    public String getName() {
+        return name;
+    }
+
     @Override
     public void showDetails() {
         System.out.println("Shortcut: " + name);
@@ -0,0 +1,347 @@
+package structural.composite;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// Binary snapshots of a Folder tree, so a large hierarchy does not have to be
+// rebuilt with addComponent calls on every start.
+//
+// Layout (big-endian):
+//   int magic, int version, int nodeCount, int stringCount, int baseCount,
+//   int stringBytes, long nodesOffset,
+//   base snapshot paths relative to this snapshot's directory (int length + UTF-8 each),
+//   string table (int offset of each name, stringCount + 1 of them, then the UTF-8 bytes),
+//   nodes in pre-order, 12 bytes each: int type << 30 | name, int childCount, int subtreeSize
+//
+// subtreeSize leads from one child straight to its next sibling, so restore maps
+// the file and only builds a folder's children when the folder is first used.
+//
+// An incremental snapshot writes a folder whose subtree is unchanged since it was
+// last saved or restored as a REF node: int REF << 30 | base, int index of the
+// folder in that base snapshot, int 1. Snapshot files are never overwritten, so
+// the bases an incremental snapshot refers to stay valid, and since the paths are
+// relative, a directory of snapshots can be moved or copied as a whole.
+public final class TreeSnapshot {
+    private static final int MAGIC = 0x54524545; // "TREE"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int NODE_BYTES = 12;
+    private static final int FOLDER = 0;
+    private static final int FILE = 1;
+    private static final int SHORTCUT = 2;
+    private static final int REF = 3;
+    private static final int PAYLOAD_MASK = (1 << 30) - 1;
+
+    private final Path path;
+    // Only set for snapshots opened by restore
+    private MappedByteBuffer file;
+    private TreeSnapshot[] bases;
+    private int stringsOffset;
+    private int nodesOffset;
+
+    private TreeSnapshot(Path path) {
+        this.path = path;
+    }
+
+    // Writes the whole tree
+    public static void save(Path path, Folder root) throws IOException {
+        new Writer(false).write(path, root);
+    }
+
+    // Writes only the folders changed since they were last saved or restored;
+    // unchanged subtrees become references into the snapshots they came from
+    public static void saveIncremental(Path path, Folder root) throws IOException {
+        new Writer(true).write(path, root);
+    }
+
+    // Maps the snapshot (and any bases it refers to) and returns the root folder.
+    // Folders load their children from the mapped file when first used.
+    public static Folder restore(Path path) throws IOException {
+        FileSystemComponent root = open(path, new HashMap<>()).node(0);
+        if (!(root instanceof Folder)) {
+            throw new IOException("Snapshot root is not a folder: " + path);
+        }
+        return (Folder) root;
+    }
+
+    private static TreeSnapshot open(Path path, Map<Path, TreeSnapshot> opened) throws IOException {
+        Path key = path.toAbsolutePath().normalize();
+        TreeSnapshot snapshot = opened.get(key);
+        if (snapshot == null) {
+            snapshot = new TreeSnapshot(key);
+            opened.put(key, snapshot);
+            snapshot.map(opened);
+        }
+        return snapshot;
+    }
+
+    private void map(Map<Path, TreeSnapshot> opened) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot larger than 2 GB is not supported: " + path);
+            }
+            file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (file.getInt(0) != MAGIC || file.getInt(4) != VERSION) {
+            throw new IOException("Not a tree snapshot: " + path);
+        }
+        int baseCount = file.getInt(16);
+        nodesOffset = (int) file.getLong(24);
+        ByteBuffer header = file.duplicate().position(HEADER_BYTES);
+        bases = new TreeSnapshot[baseCount];
+        for (int i = 0; i < baseCount; i++) {
+            byte[] bytes = new byte[header.getInt()];
+            header.get(bytes);
+            // Older snapshots stored absolute paths, which resolve() keeps as they are
+            bases[i] = open(path.getParent().resolve(new String(bytes, StandardCharsets.UTF_8)), opened);
+        }
+        stringsOffset = header.position();
+    }
+
+    private String name(int id) {
+        int stringCount = file.getInt(12);
+        int start = file.getInt(stringsOffset + 4 * id);
+        int end = file.getInt(stringsOffset + 4 * (id + 1));
+        byte[] bytes = new byte[end - start];
+        file.get(stringsOffset + 4 * (stringCount + 1) + start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private FileSystemComponent node(int index) {
+        int position = nodesOffset + index * NODE_BYTES;
+        int word = file.getInt(position);
+        int payload = word & PAYLOAD_MASK;
+        switch (word >>> 30) {
+            case FOLDER:
+                return new LazyFolder(this, index, name(payload));
+            case FILE:
+                return new File(name(payload));
+            case SHORTCUT:
+                return new Shortcut(name(payload));
+            default:
+                return bases[payload].node(file.getInt(position + 4));
+        }
+    }
+
+    private void loadChildren(int index, List<FileSystemComponent> into) {
+        int childCount = file.getInt(nodesOffset + index * NODE_BYTES + 4);
+        int child = index + 1;
+        for (int i = 0; i < childCount; i++) {
+            into.add(node(child));
+            child += file.getInt(nodesOffset + child * NODE_BYTES + 8);
+        }
+    }
+
+    // A restored folder; its children are read from the snapshot on first access
+    private static final class LazyFolder extends Folder {
+        private TreeSnapshot pending; // null once the children are loaded
+
+        LazyFolder(TreeSnapshot snapshot, int index, String name) {
+            super(name);
+            this.pending = snapshot;
+            this.savedIn = snapshot;
+            this.savedIndex = index;
+        }
+
+        @Override
+        List<FileSystemComponent> components() {
+            List<FileSystemComponent> components = super.components();
+            if (pending != null) {
+                TreeSnapshot snapshot = pending;
+                pending = null;
+                snapshot.loadChildren(savedIndex, components);
+            }
+            return components;
+        }
+
+        @Override
+        boolean isLoaded() {
+            return pending == null;
+        }
+    }
+
+    private static final class Writer {
+        private final boolean incremental;
+        private int[] nodes = new int[3 * 1024];
+        private int nodeCount;
+        private final List<String> strings = new ArrayList<>();
+        private final Map<String, Integer> stringIds = new HashMap<>();
+        private final List<Path> bases = new ArrayList<>();
+        // Folders written in full, and their node index, to be marked saved at the end
+        private final List<Folder> written = new ArrayList<>();
+        private int[] writtenIndexes = new int[1024];
+
+        Writer(boolean incremental) {
+            this.incremental = incremental;
+        }
+
+        void write(Path path, Folder root) throws IOException {
+            writeComponent(root);
+
+            int[] offsets = new int[strings.size() + 1];
+            ByteArrayOutputStream stringBytes = new ByteArrayOutputStream();
+            for (int i = 0; i < strings.size(); i++) {
+                stringBytes.writeBytes(strings.get(i).getBytes(StandardCharsets.UTF_8));
+                offsets[i + 1] = stringBytes.size();
+            }
+            List<byte[]> basePaths = new ArrayList<>();
+            long nodesOffset = HEADER_BYTES;
+            Path directory = path.toAbsolutePath().normalize().getParent();
+            for (Path base : bases) {
+                byte[] bytes = relativePath(directory, base).getBytes(StandardCharsets.UTF_8);
+                basePaths.add(bytes);
+                nodesOffset += 4 + bytes.length;
+            }
+            nodesOffset += 4L * offsets.length + stringBytes.size();
+            int padding = (int) (-nodesOffset & 3);
+            nodesOffset += padding;
+            if (nodesOffset + (long) nodeCount * NODE_BYTES > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot larger than 2 GB is not supported");
+            }
+
+            // CREATE_NEW: incremental snapshots may refer to an existing file, so never replace one
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(nodeCount);
+                out.writeInt(strings.size());
+                out.writeInt(bases.size());
+                out.writeInt(stringBytes.size());
+                out.writeLong(nodesOffset);
+                for (byte[] bytes : basePaths) {
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                }
+                for (int offset : offsets) {
+                    out.writeInt(offset);
+                }
+                stringBytes.writeTo(out);
+                out.write(new byte[padding]);
+                for (int i = 0; i < 3 * nodeCount; i++) {
+                    out.writeInt(nodes[i]);
+                }
+            }
+
+            TreeSnapshot saved = new TreeSnapshot(path.toAbsolutePath().normalize());
+            for (int i = 0; i < written.size(); i++) {
+                Folder folder = written.get(i);
+                folder.savedIn = saved;
+                folder.savedIndex = writtenIndexes[i];
+            }
+        }
+
+        // Returns true if the subtree is unchanged since it was last saved
+        private boolean writeComponent(FileSystemComponent component) {
+            if (component instanceof Folder) {
+                return writeFolder((Folder) component);
+            }
+            int type;
+            if (component instanceof File) {
+                type = FILE;
+            } else if (component instanceof Shortcut) {
+                type = SHORTCUT;
+            } else {
+                throw new IllegalArgumentException("Cannot snapshot " + component.getClass().getName());
+            }
+            addNode(type << 30 | stringId(Folder.nameOf(component)), 0, 1);
+            return true;
+        }
+
+        private boolean writeFolder(Folder folder) {
+            if (incremental && folder.savedIn != null && !folder.isLoaded()) {
+                addRef(folder); // never loaded, so certainly unchanged
+                return true;
+            }
+            int start = nodeCount;
+            int stringMark = strings.size();
+            int baseMark = bases.size();
+            int writtenMark = written.size();
+            addNode(FOLDER << 30 | stringId(folder.getName()), 0, 0);
+            List<FileSystemComponent> children = folder.components();
+            boolean unchanged = folder.savedIn != null;
+            for (FileSystemComponent child : children) {
+                unchanged &= writeComponent(child);
+            }
+            if (incremental && unchanged) {
+                // Throw the subtree away again and refer to the saved copy
+                nodeCount = start;
+                while (strings.size() > stringMark) {
+                    stringIds.remove(strings.remove(strings.size() - 1));
+                }
+                bases.subList(baseMark, bases.size()).clear();
+                written.subList(writtenMark, written.size()).clear();
+                addRef(folder);
+                return true;
+            }
+            nodes[3 * start + 1] = children.size();
+            nodes[3 * start + 2] = nodeCount - start;
+            if (written.size() == writtenIndexes.length) {
+                writtenIndexes = Arrays.copyOf(writtenIndexes, written.size() * 2);
+            }
+            writtenIndexes[written.size()] = start;
+            written.add(folder);
+            return false;
+        }
+
+        private void addRef(Folder folder) {
+            int base = bases.indexOf(folder.savedIn.path);
+            if (base < 0) {
+                base = bases.size();
+                bases.add(folder.savedIn.path);
+            }
+            addNode(REF << 30 | base, folder.savedIndex, 1);
+        }
+
+        private void addNode(int word, int childCount, int subtreeSize) {
+            if (3 * nodeCount + 3 > nodes.length) {
+                nodes = Arrays.copyOf(nodes, nodes.length * 2);
+            }
+            nodes[3 * nodeCount] = word;
+            nodes[3 * nodeCount + 1] = childCount;
+            nodes[3 * nodeCount + 2] = subtreeSize;
+            nodeCount++;
+        }
+
+        private int stringId(String name) {
+            Objects.requireNonNull(name, "component name");
+            Integer id = stringIds.get(name);
+            if (id == null) {
+                if (strings.size() > PAYLOAD_MASK) {
+                    throw new IllegalStateException("Too many distinct names");
+                }
+                id = strings.size();
+                strings.add(name);
+                stringIds.put(name, id);
+            }
+            return id;
+        }
+
+        // With '/' separators so the snapshot reads the same on any platform; a base
+        // on another root (a different Windows drive) can only be stored absolute
+        private static String relativePath(Path directory, Path base) {
+            Path relative;
+            try {
+                relative = directory.relativize(base);
+            } catch (IllegalArgumentException e) {
+                return base.toString();
+            }
+            return relative.toString().replace(relative.getFileSystem().getSeparator(), "/");
+        }
+    }
+}
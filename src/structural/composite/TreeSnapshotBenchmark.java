@@ -0,0 +1,123 @@
+package structural.composite;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+// Builds a large tree with addComponent, saves it, and measures restore-to-first-query:
+// mapping the snapshot and resolving one deep path, against loading everything.
+// Then changes a few folders and writes incremental snapshots.
+//
+// Usage: TreeSnapshotBenchmark [nodes]   (10M nodes needs about -Xmx3g)
+public class TreeSnapshotBenchmark {
+    private static final int SUBFOLDERS = 8;
+    private static final int FILES = 24;
+
+    public static void main(String[] args) throws IOException {
+        int nodes = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        Path directory = Files.createTempDirectory("tree-snapshots");
+        String[] query = {"dir-3", "dir-5", "dir-1", "dir-6", "file-7"};
+        try {
+            long start = System.nanoTime();
+            Folder root = build(nodes);
+            report("build with addComponent", start);
+
+            Path full = directory.resolve("full.snapshot");
+            start = System.nanoTime();
+            TreeSnapshot.save(full, root);
+            report("save full (" + Files.size(full) / (1 << 20) + " MB)", start);
+
+            start = System.nanoTime();
+            Folder restored = TreeSnapshot.restore(full);
+            FileSystemComponent found = find(restored, query);
+            report("restore + first query (" + (found != null ? "found" : "missing") + ")", start);
+
+            start = System.nanoTime();
+            long count = count(restored);
+            report("load all " + count + " nodes", start);
+
+            // Change two folders in the original tree, which remembers where it was saved
+            Folder deep = (Folder) find(root, "dir-3", "dir-5", "dir-1");
+            deep.addComponent(new File("added.txt"));
+            ((Folder) find(root, "dir-0")).addComponent(new Folder("new-folder"));
+            Path incremental = directory.resolve("incremental-1.snapshot");
+            start = System.nanoTime();
+            TreeSnapshot.saveIncremental(incremental, root);
+            report("save incremental (" + Files.size(incremental) + " bytes)", start);
+
+            // And once more from a restored tree, which has loaded only what was touched
+            start = System.nanoTime();
+            Folder second = TreeSnapshot.restore(incremental);
+            ((Folder) find(second, "dir-7")).addComponent(new Shortcut("shortcut"));
+            Path incremental2 = directory.resolve("incremental-2.snapshot");
+            TreeSnapshot.saveIncremental(incremental2, second);
+            report("restore, change, save incremental (" + Files.size(incremental2) + " bytes)", start);
+
+            start = System.nanoTime();
+            Folder latest = TreeSnapshot.restore(incremental2);
+            boolean ok = find(latest, "dir-3", "dir-5", "dir-1", "added.txt") != null
+                    && find(latest, "dir-0", "new-folder") != null
+                    && find(latest, "dir-7", "shortcut") != null;
+            report("restore incremental + queries (" + (ok ? "changes present" : "changes missing") + ")", start);
+
+            start = System.nanoTime();
+            long latestCount = count(latest);
+            report("load all " + latestCount + " nodes across 3 snapshots", start);
+            if (!ok || latestCount != count + 3) {
+                throw new IllegalStateException("incremental snapshot lost changes");
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    // Breadth-first: every folder gets SUBFOLDERS folders and FILES files until the budget is spent
+    private static Folder build(int nodes) {
+        Folder root = new Folder("root");
+        ArrayDeque<Folder> open = new ArrayDeque<>();
+        open.add(root);
+        int created = 1;
+        while (created < nodes) {
+            Folder folder = open.poll();
+            for (int i = 0; i < SUBFOLDERS && created < nodes; i++, created++) {
+                Folder child = new Folder("dir-" + i);
+                folder.addComponent(child);
+                open.add(child);
+            }
+            for (int i = 0; i < FILES && created < nodes; i++, created++) {
+                folder.addComponent(new File("file-" + i));
+            }
+        }
+        return root;
+    }
+
+    private static FileSystemComponent find(Folder root, String... path) {
+        FileSystemComponent current = root;
+        for (String name : path) {
+            if (!(current instanceof Folder)) {
+                return null;
+            }
+            current = ((Folder) current).getComponent(name);
+        }
+        return current;
+    }
+
+    private static long count(FileSystemComponent component) {
+        long count = 1;
+        if (component instanceof Folder) {
+            for (FileSystemComponent child : ((Folder) component).getComponents()) {
+                count += count(child);
+            }
+        }
+        return count;
+    }
+
+    private static void report(String step, long startNanos) {
+        System.out.printf("%-58s%10.1f ms%n", step, (System.nanoTime() - startNanos) / 1e6);
+    }
+}
@@ -0,0 +1,140 @@
+package structural.decorator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+// Fingerprints of the chunks already sent down a DataStream chain, bounded to
+// maxEntries and evicting the least recently seen first. An evicted chunk is
+// simply sent in full again the next time it shows up.
+//
+// A Ref is only valid in the store that holds the chunk, so an index belongs to
+// one sink: sink names it (the data file, say), is saved with the index and must
+// match on load, and only one DataStream may write through the index in a process.
+//
+// File layout (big-endian): int magic, int version, UTF sink, int count, then
+// count fingerprints as two longs each, least recently seen first.
+public class ChunkIndex {
+    private static final int MAGIC = 0x43484B49; // "CHKI"
+    private static final int VERSION = 2;
+
+    private final String sink;
+    private final Map<Fingerprint, Boolean> entries;
+    private DataStream attached;
+    private long evictions;
+
+    public ChunkIndex(String sink, int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+        }
+        this.sink = Objects.requireNonNull(sink, "sink");
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Fingerprint, Boolean> eldest) {
+                if (size() > maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    // Reads a saved index, or returns an empty one if the file does not exist yet.
+    // An index saved for another sink is rejected: its Refs would dangle there.
+    public static ChunkIndex load(Path path, String sink, int maxEntries) throws IOException {
+        ChunkIndex index = new ChunkIndex(sink, maxEntries);
+        if (!Files.exists(path)) {
+            return index;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a chunk index: " + path);
+            }
+            String savedSink = in.readUTF();
+            if (!savedSink.equals(sink)) {
+                throw new IOException("Chunk index " + path + " belongs to " + savedSink + ", not " + sink);
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                index.entries.put(new Fingerprint(in.readLong(), in.readLong()), Boolean.TRUE);
+            }
+        }
+        index.evictions = 0;
+        return index;
+    }
+
+    // Written to a temporary file first and moved into place, so a crash never leaves half an index
+    public synchronized void save(Path path) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(sink);
+            out.writeInt(entries.size());
+            for (Fingerprint fingerprint : entries.keySet()) {
+                out.writeLong(fingerprint.high);
+                out.writeLong(fingerprint.low);
+            }
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Called by DeduplicationDecorator with the stream it writes to
+    synchronized void attach(DataStream stream) {
+        if (attached != null && attached != stream) {
+            throw new IllegalStateException("Chunk index for " + sink + " is already used with another DataStream");
+        }
+        attached = stream;
+    }
+
+    public String sink() {
+        return sink;
+    }
+
+    // True if the chunk was already known; otherwise remembers it and returns false
+    synchronized boolean addIfAbsent(long high, long low) {
+        return entries.put(new Fingerprint(high, low), Boolean.TRUE) != null;
+    }
+
+    synchronized void remove(long high, long low) {
+        entries.remove(new Fingerprint(high, low));
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long evictions() {
+        return evictions;
+    }
+
+    private static final class Fingerprint {
+        final long high;
+        final long low;
+
+        Fingerprint(long high, long low) {
+            this.high = high;
+            this.low = low;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Fingerprint
+                    && ((Fingerprint) other).high == high && ((Fingerprint) other).low == low;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(high);
+        }
+    }
+}
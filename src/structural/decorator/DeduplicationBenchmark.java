@@ -0,0 +1,148 @@
+package structural.decorator;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.Deflater;
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+
+// Writes a corpus of near-duplicate documents (one template with a few words
+// changed in each copy) through a store that really deflates and AES-encrypts,
+// with and without DeduplicationDecorator in front of it. Reports dedup ratio,
+// throughput and the CPU time spent downstream, then shows what a too-small
+// index does. Every run gets a fresh store and a fresh index for it.
+//
+// Usage: DeduplicationBenchmark [documents] [documentChars]
+public class DeduplicationBenchmark {
+    // Stands in for CompressionDecorator + EncryptionDecorator + FileDataStream with real work
+    static class CostlyStore implements DataStream {
+        private final Deflater deflater = new Deflater(6);
+        private final byte[] compressed = new byte[1 << 20];
+        private final Cipher cipher;
+        private final SecretKey key;
+        private long counter;
+        long nanos;
+        long storedBytes;
+
+        CostlyStore() throws GeneralSecurityException {
+            KeyGenerator generator = KeyGenerator.getInstance("AES");
+            generator.init(128);
+            key = generator.generateKey();
+            cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        }
+
+        @Override
+        public void write(String data) {
+            long start = System.nanoTime();
+            try {
+                deflater.reset();
+                deflater.setInput(data.getBytes(StandardCharsets.UTF_8));
+                deflater.finish();
+                int length = deflater.deflate(compressed);
+                byte[] iv = new byte[12];
+                long nonce = ++counter;
+                for (int i = 0; i < 8; i++) {
+                    iv[i] = (byte) (nonce >>> (8 * i));
+                }
+                cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(128, iv));
+                storedBytes += cipher.doFinal(compressed, 0, length).length;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+            nanos += System.nanoTime() - start;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int documents = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int documentChars = args.length > 1 ? Integer.parseInt(args[1]) : 64 * 1024;
+        List<String> corpus = corpus(documents, documentChars, 7);
+        double megabytes = documents * (double) documentChars * 2 / (1 << 20);
+
+        // Warm-up, so neither run pays for JIT compilation
+        run(corpus.subList(0, Math.min(200, documents)), null);
+        run(corpus.subList(0, Math.min(200, documents)), new ChunkIndex("warm-up", 1 << 20));
+
+        CostlyStore plain = run(corpus, null).store;
+        System.out.printf("without dedup:  %8.1f ms downstream, %,d bytes stored%n", plain.nanos / 1e6, plain.storedBytes);
+
+        Result deduped = run(corpus, new ChunkIndex("dedup-store", 1 << 20));
+        report("with dedup", deduped, megabytes, plain);
+
+        // Far fewer entries than distinct chunks: evicted chunks are sent again
+        ChunkIndex small = new ChunkIndex("small-index-store", 16);
+        Result evicting = run(corpus, small);
+        report("16-entry index", evicting, megabytes, plain);
+        System.out.printf("                %,d evictions%n", small.evictions());
+    }
+
+    static final class Result {
+        final CostlyStore store;
+        final DeduplicationDecorator dedup;
+        final long totalNanos;
+
+        Result(CostlyStore store, DeduplicationDecorator dedup, long totalNanos) {
+            this.store = store;
+            this.dedup = dedup;
+            this.totalNanos = totalNanos;
+        }
+    }
+
+    // index == null writes straight to the store
+    private static Result run(List<String> corpus, ChunkIndex index) throws GeneralSecurityException {
+        CostlyStore store = new CostlyStore();
+        DeduplicationDecorator dedup = index == null ? null : new DeduplicationDecorator(store, index);
+        DataStream stream = dedup == null ? store : dedup;
+        long start = System.nanoTime();
+        for (String document : corpus) {
+            stream.write(document);
+        }
+        return new Result(store, dedup, System.nanoTime() - start);
+    }
+
+    private static void report(String label, Result result, double megabytes, CostlyStore plain) {
+        DeduplicationDecorator dedup = result.dedup;
+        long chunkingNanos = result.totalNanos - result.store.nanos;
+        System.out.printf("%-15s %8.1f ms downstream, %,d bytes stored, dedup ratio %.1f, %,d of %,d chunks repeated%n",
+                label + ":", result.store.nanos / 1e6, result.store.storedBytes, dedup.getDedupRatio(),
+                dedup.getDuplicateChunkCount(), dedup.getChunkCount());
+        System.out.printf("                chunking %.0f MB/s, end to end %.0f MB/s (vs %.0f), downstream CPU saved %.0f%%%n",
+                megabytes / (chunkingNanos / 1e9), megabytes / (result.totalNanos / 1e9), megabytes / (plain.nanos / 1e9),
+                100.0 * (plain.nanos - result.store.nanos) / plain.nanos);
+    }
+
+    // One template of random words; each document replaces a handful of them
+    private static List<String> corpus(int documents, int documentChars, long seed) {
+        Random random = new Random(seed);
+        String[] words = new String[4_096];
+        for (int i = 0; i < words.length; i++) {
+            StringBuilder word = new StringBuilder();
+            int length = 2 + random.nextInt(9);
+            for (int j = 0; j < length; j++) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            words[i] = word.toString();
+        }
+        List<String> template = new ArrayList<>();
+        int chars = 0;
+        while (chars < documentChars) {
+            String word = words[random.nextInt(words.length)];
+            template.add(word);
+            chars += word.length() + 1;
+        }
+        List<String> corpus = new ArrayList<>(documents);
+        for (int d = 0; d < documents; d++) {
+            List<String> copy = new ArrayList<>(template);
+            for (int edit = 0; edit < 5; edit++) {
+                copy.set(random.nextInt(copy.size()), words[random.nextInt(words.length)]);
+            }
+            corpus.add(String.join(" ", copy));
+        }
+        return corpus;
+    }
+}
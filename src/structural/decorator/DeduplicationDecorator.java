@@ -0,0 +1,171 @@
+package structural.decorator;
+
+import java.nio.ByteBuffer;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.SplittableRandom;
+
+// Concrete Decorator for Deduplication: splits the data into content-defined
+// chunks and sends each chunk down the chain only the first time it is seen.
+// Repeats become a short reference, so decorators further down (compression,
+// encryption, the file) only pay for new content:
+//
+//   Chunk(<id>:<length>:<data>)   a chunk seen for the first time; length is
+//                                 in chars, so data may contain ')' or "Ref("
+//   Ref(<id>)                     a chunk already sent
+//
+// where id is the 32 hex digit SHA-256 prefix of the chunk.
+//
+// Chunk boundaries come from a rolling (gear) hash over the last 64 chars, so an
+// edit only changes the chunks around it and the rest still match.
+public class DeduplicationDecorator extends DataStreamDecorator {
+    private static final long[] GEAR = new long[256];
+    private static final HexFormat HEX = HexFormat.of();
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5DEECE66DL);
+        for (int i = 0; i < GEAR.length; i++) {
+            GEAR[i] = random.nextLong();
+        }
+    }
+
+    private final ChunkIndex index;
+    private final int minChunk;
+    private final int maxChunk;
+    private final int boundaryShift;
+    private final MessageDigest sha256;
+    private final byte[] chunkBytes;
+    private final byte[] digest = new byte[32];
+    private final ByteBuffer digestView = ByteBuffer.wrap(digest);
+    private final StringBuilder output = new StringBuilder();
+    // Fingerprints first seen in the current write, as high/low pairs
+    private long[] added = new long[64];
+    private int addedCount;
+    private long charsWritten;
+    private long charsForwarded;
+    private long chunks;
+    private long duplicateChunks;
+
+    public DeduplicationDecorator(DataStream dataStream, ChunkIndex index) {
+        this(dataStream, index, 512, 2048, 8192);
+    }
+
+    // averageChunk must be a power of two; chunk sizes are in chars
+    public DeduplicationDecorator(DataStream dataStream, ChunkIndex index, int minChunk, int averageChunk, int maxChunk) {
+        super(dataStream);
+        if (Integer.bitCount(averageChunk) != 1 || minChunk <= 0 || minChunk > averageChunk || averageChunk > maxChunk) {
+            throw new IllegalArgumentException("Need 0 < minChunk <= averageChunk <= maxChunk, averageChunk a power of two");
+        }
+        index.attach(dataStream);
+        this.index = index;
+        this.minChunk = minChunk;
+        this.maxChunk = maxChunk;
+        // A boundary wherever the top log2(averageChunk) bits of the hash are zero
+        this.boundaryShift = 64 - Integer.numberOfTrailingZeros(averageChunk);
+        this.chunkBytes = new byte[2 * maxChunk];
+        try {
+            this.sha256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    @Override
+    public synchronized void write(String data) {
+        output.setLength(0);
+        addedCount = 0;
+        for (int start = 0; start < data.length(); ) {
+            int end = nextBoundary(data, start);
+            appendChunk(data, start, end);
+            start = end;
+        }
+        try {
+            super.write(output.toString());
+        } catch (RuntimeException e) {
+            // The new chunks never reached the store, so later writes must not refer to them
+            for (int i = 0; i < addedCount; i += 2) {
+                index.remove(added[i], added[i + 1]);
+            }
+            throw e;
+        }
+        charsWritten += data.length();
+        charsForwarded += output.length();
+    }
+
+    public synchronized long getCharsWritten() {
+        return charsWritten;
+    }
+
+    public synchronized long getCharsForwarded() {
+        return charsForwarded;
+    }
+
+    public synchronized long getChunkCount() {
+        return chunks;
+    }
+
+    public synchronized long getDuplicateChunkCount() {
+        return duplicateChunks;
+    }
+
+    // Chars written for every char sent down the chain
+    public synchronized double getDedupRatio() {
+        return charsForwarded == 0 ? 1 : charsWritten / (double) charsForwarded;
+    }
+
+    private int nextBoundary(String data, int start) {
+        int limit = Math.min(data.length(), start + maxChunk);
+        long hash = 0;
+        // No cut before minChunk, so there is no need to hash those chars
+        for (int i = Math.min(limit, start + minChunk); i < limit; i++) {
+            char c = data.charAt(i);
+            hash = (hash << 1) + GEAR[(c ^ (c >>> 8)) & 0xFF];
+            if (hash >>> boundaryShift == 0) {
+                return i + 1;
+            }
+        }
+        return limit;
+    }
+
+    private void appendChunk(String data, int start, int end) {
+        // Fingerprint the UTF-16 chars directly; unlike a charset encoding this
+        // is lossless for every String, including unpaired surrogates
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            char c = data.charAt(i);
+            chunkBytes[length++] = (byte) (c >>> 8);
+            chunkBytes[length++] = (byte) c;
+        }
+        sha256.update(chunkBytes, 0, length);
+        try {
+            sha256.digest(digest, 0, digest.length);
+        } catch (DigestException e) {
+            throw new IllegalStateException(e);
+        }
+        long high = digestView.getLong(0);
+        long low = digestView.getLong(8);
+        chunks++;
+        if (index.addIfAbsent(high, low)) {
+            duplicateChunks++;
+            output.append("Ref(");
+            appendId(high, low);
+            output.append(')');
+        } else {
+            if (addedCount == added.length) {
+                added = Arrays.copyOf(added, addedCount * 2);
+            }
+            added[addedCount++] = high;
+            added[addedCount++] = low;
+            output.append("Chunk(");
+            appendId(high, low);
+            output.append(':').append(end - start).append(':').append(data, start, end).append(')');
+        }
+    }
+
+    private void appendId(long high, long low) {
+        output.append(HEX.toHexDigits(high)).append(HEX.toHexDigits(low));
+    }
+}
@@ -0,0 +1,29 @@
+package structural.decorator;
+
+import structural.decorator.instrumentation.CallMetrics;
+import structural.decorator.instrumentation.MetricsRegistry;
+
+// Concrete Decorator for Instrumentation: records call count and latency of
+// write() for everything further down the chain
+public class InstrumentedDataStream extends DataStreamDecorator {
+    private final CallMetrics writes;
+
+    public InstrumentedDataStream(DataStream dataStream) {
+        this(dataStream, MetricsRegistry.getDefault());
+    }
+
+    public InstrumentedDataStream(DataStream dataStream, MetricsRegistry registry) {
+        super(dataStream);
+        this.writes = registry.metrics("DataStream.write/" + dataStream.getClass().getSimpleName());
+    }
+
+    @Override
+    public void write(String data) {
+        long start = writes.begin();
+        try {
+            super.write(data);
+        } finally {
+            writes.end(start);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package structural.decorator.instrumentation;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Call count and latency histogram for one instrumented operation.
+//
+// Every thread records into its own Recorder, so the hot path has no locks, no
+// CAS and no allocation (after the thread's first call). Recorders are only
+// read, and merged, when a snapshot is taken.
+//
+// Calls are always counted. Reading the clock costs more than the ~20 ns budget
+// on many machines, so latency is measured for one call in every sampleEvery
+// calls per thread; use a sampleEvery of 1 to time every call.
+public final class CallMetrics {
+    // Log-linear buckets: 8 sub-buckets per power of two, up to 2^63 ns
+    static final int SUB_BUCKET_BITS = 3;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final int BUCKETS = 64 * SUB_BUCKETS;
+
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final String name;
+    private final int sampleMask;
+    private final List<Recorder> recorders = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<Recorder> local = ThreadLocal.withInitial(this::newRecorder);
+
+    CallMetrics(String name, int sampleEvery) {
+        if (Integer.bitCount(sampleEvery) != 1) {
+            throw new IllegalArgumentException("sampleEvery must be a power of two: " + sampleEvery);
+        }
+        this.name = name;
+        this.sampleMask = sampleEvery - 1;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    // Call before the operation and pass the result to end(). Returns 0 when
+    // this call is not timed.
+    public long begin() {
+        Recorder recorder = local.get();
+        long calls = recorder.calls + 1;
+        Recorder.CALLS.setOpaque(recorder, calls);
+        return (calls & sampleMask) == 0 ? System.nanoTime() : 0L;
+    }
+
+    public void end(long beginNanos) {
+        if (beginNanos != 0L) {
+            local.get().recordLatency(System.nanoTime() - beginNanos);
+        }
+    }
+
+    // Merged view of every thread's recorder at this moment
+    public Snapshot snapshot() {
+        long calls = 0;
+        long[] histogram = new long[BUCKETS];
+        for (Recorder recorder : recorders) {
+            calls += (long) Recorder.CALLS.getOpaque(recorder);
+            for (int i = 0; i < BUCKETS; i++) {
+                histogram[i] += (long) LONGS.getOpaque(recorder.histogram, i);
+            }
+        }
+        return new Snapshot(name, calls, histogram);
+    }
+
+    private Recorder newRecorder() {
+        Recorder recorder = new Recorder();
+        recorders.add(recorder);
+        return recorder;
+    }
+
+    static int bucketOf(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) Math.max(0, nanos);
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(nanos);
+        int subBucket = (int) (nanos >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    // Smallest value that falls into the bucket
+    static long lowerBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int magnitude = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long subBucket = bucket % SUB_BUCKETS;
+        return (1L << magnitude) | (subBucket << (magnitude - SUB_BUCKET_BITS));
+    }
+
+    // Written only by its own thread; the opaque writes let a snapshot read
+    // whole, recent values without any locking
+    private static final class Recorder {
+        static final VarHandle CALLS;
+
+        static {
+            try {
+                CALLS = MethodHandles.lookup().findVarHandle(Recorder.class, "calls", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        final long[] histogram = new long[BUCKETS];
+        long calls;
+
+        void recordLatency(long nanos) {
+            int bucket = bucketOf(nanos);
+            LONGS.setOpaque(histogram, bucket, histogram[bucket] + 1);
+        }
+    }
+
+    public static final class Snapshot {
+        private final String name;
+        private final long calls;
+        private final long[] histogram;
+        private final long samples;
+
+        Snapshot(String name, long calls, long[] histogram) {
+            this.name = name;
+            this.calls = calls;
+            this.histogram = histogram;
+            long total = 0;
+            for (long count : histogram) {
+                total += count;
+            }
+            this.samples = total;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public long calls() {
+            return calls;
+        }
+
+        public long samples() {
+            return samples;
+        }
+
+        // Approximate latency at the given fraction (0.5 = median), in nanoseconds
+        public long percentileNanos(double fraction) {
+            if (samples == 0) {
+                return 0;
+            }
+            long target = Math.max(1, (long) Math.ceil(samples * fraction));
+            long seen = 0;
+            for (int i = 0; i < histogram.length; i++) {
+                seen += histogram[i];
+                if (seen >= target) {
+                    return lowerBound(i);
+                }
+            }
+            return lowerBound(histogram.length - 1);
+        }
+    }
+}
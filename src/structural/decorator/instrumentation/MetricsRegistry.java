@@ -0,0 +1,107 @@
+package structural.decorator.instrumentation;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Named CallMetrics shared by all instrumented decorators, plus an optional
+// background exporter that writes a snapshot to a local file on a schedule.
+public final class MetricsRegistry {
+    public enum Format { TEXT, JSON }
+
+    private static final MetricsRegistry DEFAULT = new MetricsRegistry(64);
+
+    private final ConcurrentMap<String, CallMetrics> metrics = new ConcurrentHashMap<>();
+    private final int sampleEvery;
+    private ScheduledExecutorService exporter;
+
+    public MetricsRegistry(int sampleEvery) {
+        this.sampleEvery = sampleEvery;
+    }
+
+    public static MetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    // Decorators look their metrics up once, when they are created
+    public CallMetrics metrics(String name) {
+        return metrics.computeIfAbsent(name, key -> new CallMetrics(key, sampleEvery));
+    }
+
+    public List<CallMetrics.Snapshot> snapshot() {
+        List<CallMetrics.Snapshot> snapshots = new ArrayList<>();
+        for (CallMetrics metric : metrics.values()) {
+            snapshots.add(metric.snapshot());
+        }
+        snapshots.sort((a, b) -> a.name().compareTo(b.name()));
+        return snapshots;
+    }
+
+    public String render(Format format) {
+        List<CallMetrics.Snapshot> snapshots = snapshot();
+        StringBuilder out = new StringBuilder();
+        if (format == Format.JSON) {
+            out.append("{\"timestamp\":").append(System.currentTimeMillis()).append(",\"metrics\":[");
+            for (int i = 0; i < snapshots.size(); i++) {
+                CallMetrics.Snapshot s = snapshots.get(i);
+                out.append(i == 0 ? "" : ",")
+                        .append("{\"name\":\"").append(s.name().replace("\"", "\\\"")).append('"')
+                        .append(",\"calls\":").append(s.calls())
+                        .append(",\"samples\":").append(s.samples())
+                        .append(",\"p50Nanos\":").append(s.percentileNanos(0.50))
+                        .append(",\"p99Nanos\":").append(s.percentileNanos(0.99))
+                        .append(",\"maxNanos\":").append(s.percentileNanos(1.0))
+                        .append('}');
+            }
+            out.append("]}\n");
+        } else {
+            out.append(String.format(Locale.ROOT, "%-40s %14s %12s %12s %12s%n", "metric", "calls", "p50 ns", "p99 ns", "max ns"));
+            for (CallMetrics.Snapshot s : snapshots) {
+                out.append(String.format(Locale.ROOT, "%-40s %14d %12d %12d %12d%n", s.name(), s.calls(),
+                        s.percentileNanos(0.50), s.percentileNanos(0.99), s.percentileNanos(1.0)));
+            }
+        }
+        return out.toString();
+    }
+
+    // Writes a snapshot to the file every period. Each write goes to a temporary
+    // file first and is then moved into place, so readers never see half a file.
+    public synchronized void startExporter(Path file, Format format, long period, TimeUnit unit) {
+        if (exporter != null) {
+            throw new IllegalStateException("Exporter already running");
+        }
+        exporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-exporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        exporter.scheduleAtFixedRate(() -> export(file, format), period, period, unit);
+    }
+
+    public synchronized void stopExporter() {
+        if (exporter != null) {
+            exporter.shutdown();
+            exporter = null;
+        }
+    }
+
+    public void export(Path file, Format format) {
+        try {
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.writeString(temp, render(format), StandardCharsets.UTF_8);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Could not export metrics to " + file + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package structural.facade;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Schedules facade scenes for a whole fleet of homes on one timing wheel instead
+// of one timer per home. A single ticker thread advances the wheel and hands due
+// scenes to a bounded worker pool in batches.
+public class FleetScheduler implements AutoCloseable {
+    public interface DispatchListener {
+        void onDispatched(ScheduledScene scene, long actualMillis);
+    }
+
+    private final TimingWheel wheel;
+    private final int batchSize;
+    private final ThreadPoolExecutor workers;
+    private final Thread ticker;
+    private final AtomicLong dispatched = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile DispatchListener listener = (scene, actualMillis) -> { };
+    private volatile boolean running = true;
+
+    public FleetScheduler(long tickMillis, int workerCount, int queueCapacity, int batchSize) {
+        this.batchSize = batchSize;
+        this.wheel = new TimingWheel(tickMillis, System.currentTimeMillis());
+        // Bounded queue; when it is full the ticker runs the batch itself, which
+        // slows ticking down instead of piling up unbounded work
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new ThreadPoolExecutor.CallerRunsPolicy());
+        this.ticker = new Thread(this::tickLoop, "fleet-scheduler-ticker");
+        this.ticker.setDaemon(true);
+        this.ticker.start();
+    }
+
+    public void setDispatchListener(DispatchListener listener) {
+        this.listener = listener;
+    }
+
+    public ScheduledScene schedule(SmartHomeFacade home, Scene scene, long atMillis) {
+        synchronized (wheel) {
+            return wheel.schedule(home, scene, atMillis);
+        }
+    }
+
+    public boolean cancel(ScheduledScene scheduledScene) {
+        synchronized (wheel) {
+            return wheel.cancel(scheduledScene);
+        }
+    }
+
+    public int pendingCount() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+
+    // Scenes handed to the workers, including the ones that failed
+    public long dispatchedCount() {
+        return dispatched.get();
+    }
+
+    public long failedCount() {
+        return failed.get();
+    }
+
+    private void tickLoop() {
+        List<ScheduledScene> due = new ArrayList<>();
+        while (running) {
+            long targetTick = wheel.elapsedTicks(System.currentTimeMillis());
+            long nextTickMillis;
+            synchronized (wheel) {
+                // Catch up on every tick we slept through or lost to a slow dispatch
+                while (wheel.currentTick() < targetTick) {
+                    wheel.advance(due::add);
+                }
+                nextTickMillis = wheel.millisForTick(wheel.currentTick() + 1);
+            }
+            dispatch(due);
+            due.clear();
+            long sleepMillis = nextTickMillis - System.currentTimeMillis();
+            if (sleepMillis > 0) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(sleepMillis));
+            }
+        }
+    }
+
+    private void dispatch(List<ScheduledScene> due) {
+        for (int from = 0; from < due.size(); from += batchSize) {
+            int to = Math.min(from + batchSize, due.size());
+            ScheduledScene[] batch = due.subList(from, to).toArray(new ScheduledScene[0]);
+            workers.execute(() -> runBatch(batch));
+        }
+    }
+
+    private void runBatch(ScheduledScene[] batch) {
+        DispatchListener currentListener = listener;
+        for (ScheduledScene scheduledScene : batch) {
+            // One failing home must not cost the rest of the batch its scenes
+            try {
+                scheduledScene.run();
+                currentListener.onDispatched(scheduledScene, System.currentTimeMillis());
+            } catch (RuntimeException e) {
+                failed.incrementAndGet();
+                System.err.println("Scene " + scheduledScene.getScene() + " failed: " + e);
+            }
+        }
+        dispatched.addAndGet(batch.length);
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            ticker.join();
+            workers.shutdown();
+            workers.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            workers.shutdown();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
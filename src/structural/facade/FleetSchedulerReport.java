@@ -0,0 +1,141 @@
+package structural.facade;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Schedules startDay/endDay for a simulated fleet and reports timer memory per
+// home and how late scenes fire compared to their schedule.
+// Usage: FleetSchedulerReport [homes] [spreadSeconds] [workers]
+public class FleetSchedulerReport {
+    // Simulated devices: they only count what they were asked to do
+    static final LongAdder deviceCalls = new LongAdder();
+
+    static class SimulatedLights extends Lights {
+        @Override
+        public void turnOn() {
+            deviceCalls.increment();
+        }
+
+        @Override
+        public void turnOff() {
+            deviceCalls.increment();
+        }
+    }
+
+    static class SimulatedThermostat extends Thermostat {
+        @Override
+        public void setTemperature(int temperature) {
+            deviceCalls.increment();
+        }
+    }
+
+    static class SimulatedSecuritySystem extends SecuritySystem {
+        @Override
+        public void activate() {
+            deviceCalls.increment();
+        }
+
+        @Override
+        public void deactivate() {
+            deviceCalls.increment();
+        }
+    }
+
+    // Drift histogram with 1 ms buckets; the last bucket collects everything later
+    static final int DRIFT_BUCKETS = 10_000;
+    static final AtomicLongArray driftHistogram = new AtomicLongArray(DRIFT_BUCKETS);
+
+    public static void main(String[] args) throws Exception {
+        int homes = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int spreadSeconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int workers = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        int scenes = homes * 2;
+
+        long baseline = usedHeap();
+        SmartHomeFacade[] fleet = new SmartHomeFacade[homes];
+        for (int i = 0; i < homes; i++) {
+            fleet[i] = new SmartHomeFacade(new SimulatedLights(), new SimulatedThermostat(), new SimulatedSecuritySystem());
+        }
+        long afterFleet = usedHeap();
+
+        FleetScheduler scheduler = new FleetScheduler(1, workers, 1024, 512);
+        scheduler.setDispatchListener((scene, actualMillis) -> {
+            long drift = Math.max(0, actualMillis - scene.getDeadlineMillis());
+            driftHistogram.incrementAndGet((int) Math.min(drift, DRIFT_BUCKETS - 1));
+        });
+
+        // The facade itself announces each scene on stdout; silence it during the run
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        // Every home gets a morning and an evening scene somewhere in the window
+        Random random = new Random(42);
+        long start = System.currentTimeMillis() + 2_000;
+        long spreadMillis = spreadSeconds * 1_000L;
+        long scheduleStart = System.nanoTime();
+        for (SmartHomeFacade home : fleet) {
+            long morning = start + (long) (random.nextDouble() * spreadMillis / 2);
+            long evening = morning + spreadMillis / 2;
+            scheduler.schedule(home, Scene.START_DAY, morning);
+            scheduler.schedule(home, Scene.END_DAY, evening);
+        }
+        long scheduleNanos = System.nanoTime() - scheduleStart;
+        long afterScheduling = usedHeap();
+
+        // Cancel and re-add a slice of the fleet to exercise O(1) cancel
+        int churn = homes / 100;
+        long churnStart = System.nanoTime();
+        for (int i = 0; i < churn; i++) {
+            ScheduledScene extra = scheduler.schedule(fleet[i], Scene.START_DAY, start + spreadMillis);
+            scheduler.cancel(extra);
+        }
+        long churnNanos = System.nanoTime() - churnStart;
+
+        try {
+            while (scheduler.dispatchedCount() < scenes) {
+                Thread.sleep(100);
+            }
+        } finally {
+            System.setOut(console);
+        }
+        scheduler.close();
+
+        System.out.println("Homes: " + homes + ", scenes: " + scenes + ", workers: " + workers);
+        System.out.printf("Facade + simulated devices: %.1f bytes/home%n", (afterFleet - baseline) / (double) homes);
+        System.out.printf("Timer memory: %.1f bytes/home%n", (afterScheduling - afterFleet) / (double) homes);
+        System.out.printf("Schedule: %.1f ns/scene, schedule+cancel: %.1f ns/pair%n",
+                scheduleNanos / (double) scenes, churnNanos / (double) Math.max(1, churn));
+        System.out.println("Device calls: " + deviceCalls.sum() + " (expected " + scenes * 3L + "), failed scenes: "
+                + scheduler.failedCount());
+        System.out.println("Firing drift (ms): p50=" + percentile(0.50) + " p99=" + percentile(0.99)
+                + " p99.9=" + percentile(0.999) + " max=" + percentile(1.0));
+    }
+
+    private static long percentile(double fraction) {
+        long total = 0;
+        for (int i = 0; i < DRIFT_BUCKETS; i++) {
+            total += driftHistogram.get(i);
+        }
+        long target = (long) Math.ceil(total * fraction);
+        long seen = 0;
+        for (int i = 0; i < DRIFT_BUCKETS; i++) {
+            seen += driftHistogram.get(i);
+            if (seen >= target && seen > 0) {
+                return i;
+            }
+        }
+        return DRIFT_BUCKETS - 1;
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
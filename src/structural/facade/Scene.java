@@ -0,0 +1,19 @@
+package structural.facade;
+
+// A scene is one of the high-level actions exposed by the facade
+public enum Scene {
+    START_DAY {
+        @Override
+        public void applyTo(SmartHomeFacade home) {
+            home.startDay();
+        }
+    },
+    END_DAY {
+        @Override
+        public void applyTo(SmartHomeFacade home) {
+            home.endDay();
+        }
+    };
+
+    public abstract void applyTo(SmartHomeFacade home);
+}
@@ -0,0 +1,37 @@
+package structural.facade;
+
+// A scene waiting in the timing wheel. It is its own list node, so cancelling
+// it is just an unlink from the slot it currently sits in.
+public class ScheduledScene {
+    final SmartHomeFacade home;
+    final Scene scene;
+    final long deadlineMillis;
+    final long deadlineTick;
+
+    ScheduledScene prev;
+    ScheduledScene next;
+    TimingWheel.Slot slot;
+
+    ScheduledScene(SmartHomeFacade home, Scene scene, long deadlineMillis, long deadlineTick) {
+        this.home = home;
+        this.scene = scene;
+        this.deadlineMillis = deadlineMillis;
+        this.deadlineTick = deadlineTick;
+    }
+
+    public SmartHomeFacade getHome() {
+        return home;
+    }
+
+    public Scene getScene() {
+        return scene;
+    }
+
+    public long getDeadlineMillis() {
+        return deadlineMillis;
+    }
+
+    void run() {
+        scene.applyTo(home);
+    }
+}
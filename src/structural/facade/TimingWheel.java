@@ -0,0 +1,147 @@
+package structural.facade;
+
+import java.util.function.Consumer;
+
+// Hierarchical timing wheel: LEVELS wheels of SLOTS slots each. Level 0 slots
+// are one tick wide, level 1 slots are SLOTS ticks wide, and so on. Scenes far
+// in the future sit in a coarse level and cascade down as time approaches them.
+// Insert and cancel are O(1). This class is not thread-safe; FleetScheduler
+// guards it.
+class TimingWheel {
+    private static final int SLOT_BITS = 8;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_DELTA = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    // Doubly-linked list of scenes with a sentinel head
+    static final class Slot {
+        private final ScheduledScene head = new ScheduledScene(null, null, 0, 0);
+
+        Slot() {
+            head.prev = head;
+            head.next = head;
+        }
+
+        void add(ScheduledScene scene) {
+            scene.slot = this;
+            scene.prev = head.prev;
+            scene.next = head;
+            head.prev.next = scene;
+            head.prev = scene;
+        }
+
+        static void unlink(ScheduledScene scene) {
+            scene.prev.next = scene.next;
+            scene.next.prev = scene.prev;
+            scene.prev = null;
+            scene.next = null;
+            scene.slot = null;
+        }
+
+        // Detaches every scene in the slot and hands it to the consumer
+        void drain(Consumer<ScheduledScene> consumer) {
+            ScheduledScene current = head.next;
+            head.prev = head;
+            head.next = head;
+            while (current != head) {
+                ScheduledScene next = current.next;
+                current.prev = null;
+                current.next = null;
+                current.slot = null;
+                consumer.accept(current);
+                current = next;
+            }
+        }
+    }
+
+    private final Slot[][] wheels = new Slot[LEVELS][SLOTS];
+    private final long tickMillis;
+    private final long startMillis;
+    private long currentTick;
+    private int size;
+
+    TimingWheel(long tickMillis, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                wheels[level][slot] = new Slot();
+            }
+        }
+    }
+
+    long tickFor(long timeMillis) {
+        long elapsed = timeMillis - startMillis;
+        // Round up so a scene never fires before its deadline
+        return elapsed <= 0 ? 0 : (elapsed + tickMillis - 1) / tickMillis;
+    }
+
+    // Number of whole ticks that have passed at the given time
+    long elapsedTicks(long nowMillis) {
+        return Math.max(0, (nowMillis - startMillis) / tickMillis);
+    }
+
+    long millisForTick(long tick) {
+        return startMillis + tick * tickMillis;
+    }
+
+    long currentTick() {
+        return currentTick;
+    }
+
+    int size() {
+        return size;
+    }
+
+    ScheduledScene schedule(SmartHomeFacade home, Scene scene, long deadlineMillis) {
+        // The current slot has already been drained, so the earliest slot is the next one
+        long deadlineTick = Math.max(tickFor(deadlineMillis), currentTick + 1);
+        ScheduledScene scheduled = new ScheduledScene(home, scene, deadlineMillis, deadlineTick);
+        place(scheduled);
+        size++;
+        return scheduled;
+    }
+
+    boolean cancel(ScheduledScene scene) {
+        if (scene.slot == null) {
+            return false; // already fired or cancelled
+        }
+        Slot.unlink(scene);
+        size--;
+        return true;
+    }
+
+    // Moves the wheel forward by one tick and passes every due scene to the consumer
+    void advance(Consumer<ScheduledScene> expired) {
+        currentTick++;
+        // A level rolls over when all the bits below it are zero. Cascade from the
+        // coarsest rolled-over level down, so its scenes reach level 0 in time.
+        int topLevel = 0;
+        while (topLevel < LEVELS - 1 && (currentTick & ((1L << (SLOT_BITS * (topLevel + 1))) - 1)) == 0) {
+            topLevel++;
+        }
+        for (int level = topLevel; level > 0; level--) {
+            int index = (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+            wheels[level][index].drain(this::place);
+        }
+        wheels[0][(int) (currentTick & SLOT_MASK)].drain(scene -> {
+            size--;
+            expired.accept(scene);
+        });
+    }
+
+    private void place(ScheduledScene scene) {
+        long deadline = Math.max(scene.deadlineTick, currentTick);
+        long delta = Math.min(deadline - currentTick, MAX_DELTA);
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        if (delta == MAX_DELTA) {
+            deadline = currentTick + MAX_DELTA;
+        }
+        int index = (int) ((deadline >>> (SLOT_BITS * level)) & SLOT_MASK);
+        wheels[level][index].add(scene);
+    }
+}